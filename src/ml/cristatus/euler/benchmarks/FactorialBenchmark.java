@@ -0,0 +1,71 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.benchmarks;
+
+import ml.cristatus.euler.utils.Count;
+
+/**
+ * Compares the running times of the algorithms offered by {@link Count} in
+ * calculating factorials, to find the point from which the prime swing
+ * algorithm takes over. The arguments can be passed as command-line
+ * arguments.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class FactorialBenchmark {
+
+    /**
+     * The entry point for the program if used in a terminal.
+     *
+     * @param args The arguments to test, if not the default ones.
+     */
+    public static void main(String[] args) {
+        long[] numbers = {100, 1_000, 10_000, 100_000, 1_000_000};
+        if (args.length > 0) {
+            numbers = new long[args.length];
+            for (int i = 0; i < args.length; i++) {
+                numbers[i] = Long.parseLong(args[i]);
+            }
+        }
+        System.out.printf("%12s", "n");
+        for (Count.FactorialAlgorithm algorithm
+                : Count.FactorialAlgorithm.values()) {
+            System.out.printf("%14s", algorithm);
+        }
+        System.out.println("  (best of 3, in ms)");
+        for (long number : numbers) {
+            System.out.printf("%12d", number);
+            for (Count.FactorialAlgorithm algorithm
+                    : Count.FactorialAlgorithm.values()) {
+                double time = Timing.bestOf(3, () -> Count
+                        .factorialOf(number, algorithm).bitLength());
+                System.out.printf("%14.2f", time);
+            }
+            System.out.println();
+        }
+        System.out.println("checksum: " + Timing.sink());
+    }
+}
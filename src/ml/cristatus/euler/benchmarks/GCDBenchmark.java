@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.benchmarks;
+
+import ml.cristatus.euler.utils.GCD;
+
+import java.util.Random;
+
+/**
+ * Compares the running time of the scalar {@link GCD#of(long, long)} with
+ * that of the batch {@link GCD#pairwise(long[], long[], long[])} over
+ * arrays of random pairs. The sizes of the arrays can be passed as
+ * command-line arguments.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class GCDBenchmark {
+
+    /**
+     * The entry point for the program if used in a terminal.
+     *
+     * @param args The sizes to test, if not the default ones.
+     */
+    public static void main(String[] args) {
+        int[] sizes = {1 << 16, 1 << 20};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        int[] bits = {16, 32, 62};
+        Random random = new Random(42);
+        System.out.printf("%10s%6s%12s%12s%12s%n", "size", "bits",
+                "scalar", "pairwise", "ns / pair");
+        for (int size : sizes) {
+            for (int bit : bits) {
+                long[] a = new long[size], b = new long[size];
+                for (int i = 0; i < size; i++) {
+                    a[i] = 1 + (random.nextLong() >>> (64 - bit));
+                    b[i] = 1 + (random.nextLong() >>> (64 - bit));
+                }
+                long[] gcds = new long[size];
+                double scalar = Timing.bestOf(5, () -> {
+                    long sum = 0;
+                    for (int i = 0; i < size; i++) {
+                        sum += GCD.of(a[i], b[i]);
+                    }
+                    return sum;
+                });
+                double pairwise = Timing.bestOf(5, () -> {
+                    GCD.pairwise(a, b, gcds);
+                    return gcds[size - 1];
+                });
+                System.out.printf("%10d%6d%12.2f%12.2f%12.2f%n", size, bit,
+                        scalar, pairwise, pairwise * 1e6 / size);
+            }
+        }
+        System.out.println("(best of 5, in ms) checksum: " + Timing.sink());
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.benchmarks;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A tiny helper that measures the running time of a task. It runs the task
+ * a few times to warm up the JIT compiler and reports the best time.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+class Timing {
+
+    /**
+     * Accumulates the results of the tasks, so that the JIT compiler cannot
+     * eliminate them as dead code.
+     */
+    private static long sink;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Timing() {
+    }
+
+    /**
+     * Returns the best running time of the task in milliseconds.
+     *
+     * @param runs The number of times to run the task.
+     * @param task The task, which returns a value derived from its result.
+     * @return The best running time in milliseconds.
+     */
+    static double bestOf(final int runs, final LongSupplier task) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            sink += task.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+
+    /**
+     * Returns the accumulated results of all the tasks, to be printed at
+     * the end of a benchmark.
+     *
+     * @return The accumulated results.
+     */
+    static long sink() {
+        return sink;
+    }
+}
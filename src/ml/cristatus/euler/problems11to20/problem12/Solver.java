@@ -25,8 +25,13 @@
 package ml.cristatus.euler.problems11to20.problem12;
 
 import ml.cristatus.euler.BaseSolver;
+import ml.cristatus.euler.utils.FactorSieve;
+import ml.cristatus.euler.utils.Factorization;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * <h1>Highly divisible triangular number</h1>
@@ -48,6 +53,11 @@ import java.math.BigInteger;
  */
 public class Solver implements BaseSolver {
 
+    /**
+     * The primes whose products are tried by {@link #indexBound(long)}.
+     */
+    private static final long[] PRIMES = {2, 3, 5, 7, 11, 13};
+
     /**
      * The entry point for the program if used in a terminal.
      *
@@ -55,6 +65,8 @@ public class Solver implements BaseSolver {
      */
     public static void main(String[] args) {
         System.out.println(bruteForce(500));
+        System.out.println(factorizedApproach(500));
+        System.out.println(divisorSieveApproach(500));
     }
 
     /**
@@ -64,7 +76,7 @@ public class Solver implements BaseSolver {
      */
     @Override
     public long getAnswer() {
-        return bruteForce(500);
+        return divisorSieveApproach(500);
     }
 
 
@@ -118,4 +130,125 @@ public class Solver implements BaseSolver {
         }
         return count;
     }
+
+    /**
+     * This method counts the factors of every triangular number from its
+     * prime factorization instead of by trial division.
+     *
+     * @param minimum The minimum number of factors required.
+     * @return The solution using prime factorization.
+     */
+    public static long factorizedApproach(long minimum) {
+        long n = 1;
+        while (true) {
+            long number = (n * (n + 1)) >>> 1;
+            if (Factorization.of(number).divisorCount() >= minimum) {
+                return number;
+            }
+            n++;
+        }
+    }
+
+    /**
+     * This method makes use of the fact that n and n + 1 are coprime, so
+     * that the n<sup>th</sup> triangular number splits into two coprime
+     * factors, a and b, (one of n and n + 1 is halved), and the number of
+     * its divisors is just &tau;(a) &middot; &tau;(b). The counts are looked
+     * up from a divisor-count sieve, which is built once, upto a bound on
+     * the index of the answer (see {@link #indexBound(long)}).
+     * <h2>Time complexity:</h2>
+     * O(N), where N is the bound on the index of the answer.
+     * <h2>Space complexity:</h2>
+     * O(N)
+     *
+     * @param minimum The minimum number of factors required.
+     * @return The solution using a divisor-count sieve.
+     */
+    public static long divisorSieveApproach(long minimum) {
+        int bound = indexBound(minimum);
+        int[] counts = FactorSieve.divisorCountsUntil(bound + 1);
+        for (int n = 1; ; n++) {
+            long count = (n & 1) == 0
+                    ? (long) counts[n >>> 1] * counts[n + 1]
+                    : (long) counts[n] * counts[(n + 1) >>> 1];
+            if (count >= minimum) {
+                return ((long) n * (n + 1)) >>> 1;
+            }
+        }
+    }
+
+    /**
+     * Returns an upper bound on the index of the first triangular number
+     * with at least the given number of divisors. It tries the indices h - 1
+     * and h, for every h whose prime factors are all at most 13, in
+     * ascending order. Since one of the two halves of such a triangular
+     * number is smooth, and thus has many divisors, the first one that has
+     * enough divisors is usually the answer itself, or close to it.
+     *
+     * @param minimum The minimum number of factors required.
+     * @return An upper bound on the index of the answer.
+     */
+    private static int indexBound(final long minimum) {
+        // keep n + 1, the largest number that is sieved, within an int
+        final long maxCap = Integer.MAX_VALUE - 2;
+        long previous = 0;
+        // widen the range of the candidates until one of them is good enough
+        for (long cap = 1 << 12; previous < maxCap; cap <<= 4) {
+            cap = Math.min(cap, maxCap);
+            List<Long> candidates = new ArrayList<>();
+            addCandidates(1, 0, cap, candidates);
+            Collections.sort(candidates);
+            for (long h : candidates) {
+                if (h <= previous)
+                    continue;
+                if (h > 1 && divisorCountOfTriangle(h - 1) >= minimum)
+                    return (int) (h - 1);
+                if (divisorCountOfTriangle(h) >= minimum)
+                    return (int) h;
+            }
+            previous = cap;
+        }
+        throw new ArithmeticException
+                ("Search exceeded the sieve for : " + minimum);
+    }
+
+    /**
+     * Adds every number upto the cap which is the given number times the
+     * powers of the primes from the given index onwards.
+     *
+     * @param number     The number to extend.
+     * @param index      The index of the next prime.
+     * @param cap        The inclusive limit of the candidates.
+     * @param candidates The list to add the candidates to.
+     */
+    private static void addCandidates(final long number, final int index,
+                                      final long cap,
+                                      final List<Long> candidates) {
+        if (index == PRIMES.length) {
+            candidates.add(number);
+            return;
+        }
+        for (long multiple = number; ; multiple *= PRIMES[index]) {
+            addCandidates(multiple, index + 1, cap, candidates);
+            if (multiple > cap / PRIMES[index])
+                break;
+        }
+    }
+
+    /**
+     * Returns the number of divisors of the n<sup>th</sup> triangular
+     * number, from the factorizations of its two coprime halves.
+     *
+     * @param n The positive index.
+     * @return The number of divisors of n (n + 1) / 2.
+     */
+    private static long divisorCountOfTriangle(final long n) {
+        long a = n, b = n + 1;
+        if ((a & 1) == 0)
+            a >>>= 1;
+        else
+            b >>>= 1;
+        return Factorization.of(a).divisorCount()
+                * Factorization.of(b).divisorCount();
+    }
 }
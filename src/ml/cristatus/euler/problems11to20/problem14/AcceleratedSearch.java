@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.problems11to20.problem14;
+
+import ml.cristatus.euler.utils.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * This searches for the starting number below a limit that produces the
+ * longest Collatz sequence, while skipping the starting numbers that can
+ * provably not be the answer. It relies on the following facts:
+ * <ol>
+ * <li>Any n &lt; limit / 2 is dominated by 2n, whose sequence is one term
+ * longer. So only the upper half of the range needs to be scanned.</li>
+ * <li>With the shortcut T(n) = n / 2 or (3n + 1) / 2, the first k steps
+ * from n = 2<sup>k</sup>a + b (with b &lt; 2<sup>k</sup>) depend only on b,
+ * and end at 3<sup>c(b)</sup>a + d(b), where c(b) is the number of odd
+ * steps. A table of c and d lets the evaluator take k steps at a time.</li>
+ * <li>If two residues b &lt; b' have the same c and d, then n and
+ * n + (b' - b) meet after k steps and have sequences of the same length.
+ * The smaller one wins the tie, so the whole class of b' can be skipped.
+ * </li>
+ * </ol>
+ * The lengths of the numbers below a threshold are computed (and cached) by
+ * a {@link LengthEvaluator} as they are needed, and the larger numbers are
+ * reduced k steps at a time until they fall below it. Ties are resolved in
+ * favour of the smaller starting number, as in a sequential scan.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class AcceleratedSearch {
+
+    /**
+     * The number of steps taken at a time.
+     */
+    public static final int K = 16;
+
+    /**
+     * The largest (exclusive) limit supported.
+     */
+    public static final long MAX_LIMIT = 1L << 40;
+
+    /**
+     * The largest size of the table of cached lengths.
+     */
+    private static final int SMALL_LIMIT = 1 << 24;
+
+    private static final int MASK = (1 << K) - 1;
+
+    // the tables, indexed by the residue b modulo 2^K
+    private static final int[] ODD_STEPS = new int[1 << K];
+    private static final long[] CONSTANT = new long[1 << K];
+    private static final long[] POWER = new long[1 << K];
+    private static final long[] BOUND = new long[1 << K];
+    private static final int[] RESIDUES;
+
+    static {
+        LongIntHashMap seen = new LongIntHashMap(1 << K);
+        int[] residues = new int[1 << K];
+        int count = 0;
+        for (int b = 0; b <= MASK; b++) {
+            // follow b for K steps, keeping track of the power of 3
+            long d = b, power = 1;
+            int c = 0;
+            for (int i = 0; i < K; i++) {
+                if ((d & 1) == 0) {
+                    d >>>= 1;
+                } else {
+                    d += (d + 1) >>> 1;
+                    power *= 3;
+                    c++;
+                }
+            }
+            ODD_STEPS[b] = c;
+            CONSTANT[b] = d;
+            POWER[b] = power;
+            BOUND[b] = (Long.MAX_VALUE - d) / power;
+            // d < 3^K < 2^26 and c <= K < 2^5, so the key is unique
+            long key = (d << 5) | c;
+            if (!seen.containsKey(key)) {
+                seen.put(key, b);
+                residues[count++] = b;
+            }
+        }
+        RESIDUES = Arrays.copyOf(residues, count);
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AcceleratedSearch() {
+    }
+
+    /**
+     * Returns the number of residue classes modulo 2<sup>K</sup> that have
+     * to be scanned, out of 2<sup>K</sup>.
+     *
+     * @return The number of residue classes that have to be scanned.
+     */
+    public static int residueCount() {
+        return RESIDUES.length;
+    }
+
+    /**
+     * Returns the starting number below the limit which produces the
+     * longest Collatz sequence. Ties are resolved in favour of the smaller
+     * starting number.
+     *
+     * @param limit The exclusive upper limit of the starting numbers.
+     * @return The term which produces the longest sequence.
+     */
+    public static long longest(final long limit) {
+        if (limit < 2 || limit > MAX_LIMIT)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        long lower = (limit + 1) >>> 1;
+        int smallLimit = (int) Math.min(limit, SMALL_LIMIT);
+        LengthCache small = new LengthCache(Math.max(smallLimit, 1 << K));
+        LengthEvaluator evaluator = new LengthEvaluator(small);
+        int max = 0;
+        long term = 0;
+        if (lower < 1 << K) {
+            // too small to skip anything: scan plainly upto 2^K
+            for (long n = Math.max(lower, 1); n < Math.min(limit, 1 << K);
+                 n++) {
+                int length = evaluator.lengthOf(n);
+                if (max < length) {
+                    max = length;
+                    term = n;
+                }
+            }
+            lower = 1 << K;
+        }
+        long threshold = small.getLimit();
+        for (long high = lower & ~(long) MASK; high < limit; high += 1 << K) {
+            for (int b : RESIDUES) {
+                long n = high + b;
+                if (n < lower)
+                    continue;
+                if (n >= limit)
+                    break;
+                int length = K + ODD_STEPS[b] + lengthOf(
+                        POWER[b] * (high >>> K) + CONSTANT[b],
+                        evaluator, threshold);
+                if (max < length || (max == length && n < term)) {
+                    max = length;
+                    term = n;
+                }
+            }
+        }
+        return term;
+    }
+
+    /**
+     * Returns the length of the sequence for the given number, taking K
+     * steps at a time until it falls below the threshold.
+     *
+     * @param number    The number whose sequence length is sought.
+     * @param evaluator The evaluator for the numbers below the threshold.
+     * @param threshold The limit of the cached lengths, at least 2<sup>K
+     *                  </sup>.
+     * @return The length of the Collatz sequence for this number.
+     */
+    private static int lengthOf(long number, final LengthEvaluator evaluator,
+                                final long threshold) {
+        int steps = 0;
+        while (number >= threshold) {
+            int b = (int) number & MASK;
+            long a = number >>> K;
+            if (a > BOUND[b])
+                throw new ArithmeticException
+                        ("Overflow in the sequence of : " + number);
+            number = POWER[b] * a + CONSTANT[b];
+            steps += K + ODD_STEPS[b];
+        }
+        return steps + evaluator.lengthOf(number);
+    }
+}
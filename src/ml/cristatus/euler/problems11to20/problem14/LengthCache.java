@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.problems11to20.problem14;
+
+/**
+ * This is a cache for the lengths of Collatz sequences. The lengths of the
+ * numbers below a limit (usually the limit of the search) are kept in a
+ * dense array. A length of 0 means that the number has not been cached yet.
+ * <p>
+ * The terms that overshoot the limit are not cached at all. They are far
+ * too many to keep at large limits, and they are rarely met again: even a
+ * small primitive map for them, capped at 2<sup>12</sup> entries, made the
+ * searches about twice as slow, since almost every lookup beyond the array
+ * is a miss.
+ * <p>
+ * Since an int is always written atomically and the length of a number
+ * never changes, a cache may be read and written by several threads
+ * without locking.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class LengthCache {
+
+    private final int[] dense;
+
+    /**
+     * Creates a new LengthCache that stores the lengths of the numbers below
+     * the given limit.
+     *
+     * @param limit The exclusive limit of the cached numbers.
+     */
+    public LengthCache(final long limit) {
+        if (limit < 1 || limit > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        dense = new int[(int) limit];
+    }
+
+    /**
+     * Returns the exclusive limit of the numbers in this cache.
+     *
+     * @return The exclusive limit of the numbers in this cache.
+     */
+    public int getLimit() {
+        return dense.length;
+    }
+
+    /**
+     * Returns the cached length for the given number, or 0 if it has not
+     * been cached yet or lies beyond the limit.
+     *
+     * @param number The number whose length is sought.
+     * @return The cached length, or 0.
+     */
+    public int get(final long number) {
+        return number < dense.length ? dense[(int) number] : 0;
+    }
+
+    /**
+     * Stores the length of the sequence for the given number, if it lies
+     * below the limit.
+     *
+     * @param number The number whose length is to be stored.
+     * @param length The length of its sequence.
+     */
+    public void put(final long number, final int length) {
+        if (number < dense.length)
+            dense[(int) number] = length;
+    }
+}
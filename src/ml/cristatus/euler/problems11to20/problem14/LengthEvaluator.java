@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.problems11to20.problem14;
+
+import java.util.Arrays;
+
+/**
+ * This evaluates the lengths of Collatz sequences iteratively, so that it
+ * can never overflow the stack no matter how long a chain is. It walks
+ * forward from the starting number until it reaches a number whose length
+ * is already cached (or 1), recording the path in a reusable buffer, and
+ * then back-fills the lengths of every number on the path in one pass.
+ * <p>
+ * Two shortcuts are taken while walking: a run of halvings is done in one
+ * shift by counting the trailing zeros, and an odd number n goes straight
+ * to (3n + 1) / 2, since 3n + 1 is always even. Only the numbers at which
+ * the walk pauses are cached, as far as they lie within the cache. The
+ * lengths count the terms of the sequence, so the length of 1 is 1.
+ * <p>
+ * An evaluator is not thread-safe; each thread should have its own.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class LengthEvaluator {
+
+    private final LengthCache cache;
+    private long[] path;
+    private int[] steps;
+
+    /**
+     * Creates a new LengthEvaluator that looks up and stores the lengths in
+     * the given cache.
+     *
+     * @param cache The cache to use.
+     */
+    public LengthEvaluator(final LengthCache cache) {
+        this.cache = cache;
+        path = new long[256];
+        steps = new int[256];
+    }
+
+    /**
+     * Returns the cache used by this evaluator.
+     *
+     * @return The cache used by this evaluator.
+     */
+    public LengthCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns the length of the Collatz sequence for the given number.
+     *
+     * @param number The number whose sequence length is to be determined.
+     * @return The length of the Collatz sequence for this number.
+     * @throws ArithmeticException If a term overflows a long.
+     */
+    public int lengthOf(final long number) {
+        if (number < 1)
+            throw new IllegalArgumentException("Invalid number : " + number);
+        long term = number;
+        int size = 0;
+        int length;
+        while (true) {
+            if (term == 1) {
+                length = 1;
+                break;
+            }
+            length = cache.get(term);
+            if (length != 0)
+                break;
+            if (size == path.length) {
+                path = Arrays.copyOf(path, size << 1);
+                steps = Arrays.copyOf(steps, size << 1);
+            }
+            path[size] = term;
+            if ((term & 1) == 0) {
+                int zeros = Long.numberOfTrailingZeros(term);
+                term >>>= zeros;
+                steps[size++] = zeros;
+            } else {
+                // (3n + 1) / 2 in two steps
+                term += (term + 1) >>> 1;
+                if (term < 0)
+                    throw new ArithmeticException
+                            ("Overflow in the sequence of : " + number);
+                steps[size++] = 2;
+            }
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            length += steps[i];
+            cache.put(path[i], length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.problems11to20.problem14;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This searches for the starting number below a limit that produces the
+ * longest Collatz sequence, using recursion and multi-threading. The range
+ * is split into chunks, each of which is scanned by its own
+ * {@link LengthEvaluator} on a separate worker of a {@link ForkJoinPool}.
+ * <p>
+ * The lengths of the small numbers are kept in a single dense table that
+ * is shared by all the workers without any locking. This is safe because
+ * the length of a number never changes: a worker either sees the length
+ * stored by another (an int is always written atomically), or it sees 0
+ * and computes the length itself. The path buffers are private to each
+ * chunk.
+ * <p>
+ * The best (length, start) pair of every chunk is packed into a single
+ * long and combined with a max as the recursion unwinds. When two starts
+ * produce equally long sequences, the smaller one wins, so the result is
+ * the same as that of a sequential scan regardless of the scheduling.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class ParallelSearch extends RecursiveTask<Long> {
+
+    /**
+     * The largest (exclusive) limit supported, which leaves room for the
+     * length in the packed results.
+     */
+    public static final long MAX_LIMIT = 1L << 40;
+
+    /**
+     * The width of the range beyond which recursion and multithreading
+     * starts.
+     */
+    private static final long THRESHOLD = 1L << 16;
+
+    /**
+     * The largest size of the shared table (which takes 4 bytes per
+     * number).
+     */
+    private static final int SHARED_LIMIT = 1 << 25;
+
+    private final long lower;
+    private final long upper;
+    private final LengthCache shared;
+
+    /**
+     * Creates a new instance of ParallelSearch that scans the given range.
+     *
+     * @param lower  The inclusive lower limit.
+     * @param upper  The exclusive upper limit.
+     * @param shared The cache shared by all the workers.
+     */
+    private ParallelSearch(final long lower, final long upper,
+                           final LengthCache shared) {
+        this.lower = lower;
+        this.upper = upper;
+        this.shared = shared;
+    }
+
+    /**
+     * Returns the starting number below the limit which produces the
+     * longest Collatz sequence. Ties are resolved in favour of the smaller
+     * starting number.
+     *
+     * @param limit The exclusive upper limit of the starting numbers.
+     * @return The term which produces the longest sequence.
+     */
+    public static long longest(final long limit) {
+        if (limit < 2 || limit > MAX_LIMIT)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        LengthCache shared = new LengthCache(Math.min(limit, SHARED_LIMIT));
+        long best = ForkJoinPool.commonPool()
+                .invoke(new ParallelSearch(1, limit, shared));
+        return startOf(best);
+    }
+
+    /**
+     * Returns the best packed (length, start) pair in the range.
+     *
+     * @return The best packed (length, start) pair in the range.
+     */
+    @Override
+    protected Long compute() {
+        if (upper - lower <= THRESHOLD) {
+            return scan();
+        }
+        long mid = lower + ((upper - lower) >>> 1);
+
+        ParallelSearch search1 = new ParallelSearch(lower, mid, shared);
+        ParallelSearch search2 = new ParallelSearch(mid, upper, shared);
+
+        search1.fork(); // On a (hopefully) separate thread
+
+        // combine and return result
+        return Math.max(search2.compute(), search1.join());
+    }
+
+    /**
+     * Scans the range sequentially.
+     *
+     * @return The best packed (length, start) pair in the range.
+     */
+    private long scan() {
+        LengthEvaluator evaluator = new LengthEvaluator(shared);
+        long best = 0;
+        for (long i = lower; i < upper; i++) {
+            best = Math.max(best, pack(evaluator.lengthOf(i), i));
+        }
+        return best;
+    }
+
+    /**
+     * Packs the length and the starting number into a single long, such
+     * that longer sequences compare greater, and among sequences of the
+     * same length, smaller starting numbers compare greater.
+     *
+     * @param length The length of the sequence.
+     * @param start  The starting number.
+     * @return The packed (length, start) pair.
+     */
+    private static long pack(final int length, final long start) {
+        return ((long) length << 40) | (MAX_LIMIT - 1 - start);
+    }
+
+    /**
+     * Extracts the starting number from a packed (length, start) pair.
+     *
+     * @param packed The packed (length, start) pair.
+     * @return The starting number.
+     */
+    private static long startOf(final long packed) {
+        return MAX_LIMIT - 1 - (packed & (MAX_LIMIT - 1));
+    }
+}
@@ -27,8 +27,6 @@ package ml.cristatus.euler.problems11to20.problem14;
 import ml.cristatus.euler.BaseSolver;
 
 import java.math.BigInteger;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * <h1>Longest Collatz sequence</h1>
@@ -54,11 +52,18 @@ import java.util.Map;
 public class Solver implements BaseSolver {
 
     /**
-     * This map is used to cache the lengths of numbers when invoked for the
-     * first time.
+     * The dense limit of the cache used by {@link #lengthOf(long)}.
      */
-    private static final Map<Long, Long> lengthMap
-            = new HashMap<>(3_000_000);
+    private static final int DEFAULT_CACHE_LIMIT = 3_000_000;
+
+    /**
+     * This holds the cache used by {@link #lengthOf(long)}, which is thus
+     * only created when it is invoked for the first time.
+     */
+    private static final class DefaultCache {
+        private static final LengthCache INSTANCE
+                = new LengthCache(DEFAULT_CACHE_LIMIT);
+    }
 
     /**
      * The entry point for the program if used in a terminal.
@@ -69,6 +74,9 @@ public class Solver implements BaseSolver {
         long limit = 1_000_000;
         System.out.println(bruteForce(limit));
         System.out.println(cacheAndConquer(limit));
+        System.out.println(iterativeApproach(limit));
+        System.out.println(parallelApproach(limit));
+        System.out.println(acceleratedApproach(limit));
     }
 
     /**
@@ -78,7 +86,7 @@ public class Solver implements BaseSolver {
      */
     @Override
     public long getAnswer() {
-        return bruteForce(1_000_000);
+        return iterativeApproach(1_000_000);
     }
 
 
@@ -111,16 +119,17 @@ public class Solver implements BaseSolver {
     }
 
     /**
-     * This method tries to cache the lengths of pre-computed numbers to try
-     * and reduce running-time, but actually fails to obtain any edge over
-     * the plain old brute-force method.
+     * This method caches the lengths of pre-computed numbers to reduce the
+     * running-time. The lengths are kept in a primitive cache whose dense
+     * part covers the whole range being searched.
      *
      * @return The term which produces the longest sequence.
      */
     public static long cacheAndConquer(final long limit) {
+        LengthCache cache = new LengthCache(Math.max(limit, 1));
         long max = 0, term = 0;
         for (long i = 1; i < limit; i++) {
-            long length = lengthOf(i);
+            long length = lengthOf(i, cache);
             if (max < length) {
                 max = length;
                 term = i;
@@ -129,6 +138,48 @@ public class Solver implements BaseSolver {
         return term;
     }
 
+    /**
+     * This method caches the lengths like {@link #cacheAndConquer(long)},
+     * but evaluates them with an iterative {@link LengthEvaluator}, which
+     * cannot overflow the stack and takes several steps at a time.
+     *
+     * @return The term which produces the longest sequence.
+     */
+    public static long iterativeApproach(final long limit) {
+        LengthEvaluator evaluator
+                = new LengthEvaluator(new LengthCache(Math.max(limit, 1)));
+        long max = 0, term = 0;
+        for (long i = 1; i < limit; i++) {
+            long length = evaluator.lengthOf(i);
+            if (max < length) {
+                max = length;
+                term = i;
+            }
+        }
+        return term;
+    }
+
+    /**
+     * This method splits the range among the available cores, which share
+     * the lengths of the small numbers. See {@link ParallelSearch}.
+     *
+     * @return The term which produces the longest sequence.
+     */
+    public static long parallelApproach(final long limit) {
+        return ParallelSearch.longest(limit);
+    }
+
+    /**
+     * This method scans only the starting numbers that can produce the
+     * longest sequence, taking several steps at a time with a precomputed
+     * table. See {@link AcceleratedSearch}.
+     *
+     * @return The term which produces the longest sequence.
+     */
+    public static long acceleratedApproach(final long limit) {
+        return AcceleratedSearch.longest(limit);
+    }
+
     /**
      * This is a straightforward iterative implementation of the length
      * counting algorithm that does not use caching.
@@ -152,20 +203,34 @@ public class Solver implements BaseSolver {
 
     /**
      * This method tries to obtain a speed boost by caching the length of
-     * sequences of newly encountered number (and fails to do so).
+     * sequences of newly encountered number in a shared cache.
      *
      * @param number The number whose sequence length is to be determined.
      * @return The length of the Collatz sequence for this number.
      */
     public static long lengthOf(long number) {
+        return lengthOf(number, DefaultCache.INSTANCE);
+    }
+
+    /**
+     * This method obtains a speed boost by caching the length of sequences
+     * of newly encountered number in the given cache, which keeps only the
+     * numbers below its limit.
+     *
+     * @param number The number whose sequence length is to be determined.
+     * @param cache  The cache to look up and store the lengths in.
+     * @return The length of the Collatz sequence for this number.
+     */
+    public static int lengthOf(long number, LengthCache cache) {
         if (number == 1)
             return 1;
-        if (lengthMap.containsKey(number))
-            return lengthMap.get(number);
-        long length = 1 + ((number & 1) == 0
-                ? lengthOf(number >>> 1)
-                : lengthOf(1 + number + (number << 1)));
-        lengthMap.put(number, length);
+        int length = cache.get(number);
+        if (length != 0)
+            return length;
+        length = 1 + ((number & 1) == 0
+                ? lengthOf(number >>> 1, cache)
+                : lengthOf(1 + number + (number << 1), cache));
+        cache.put(number, length);
         return length;
     }
 
@@ -80,7 +80,9 @@ public class Solver implements BaseSolver {
     public static void main(String[] args) {
         int n = 20;
         System.out.println(Count.combinations(n << 1, n));
+        System.out.println(Count.combinationsAsLong(n << 1, n));
         System.out.println(iterativeApproach(n, n));
+        System.out.println(primeFactorApproach(n, n));
     }
 
     /**
@@ -126,4 +128,18 @@ public class Solver implements BaseSolver {
         return data[m][n];
     }
 
+    /**
+     * This method counts the paths as the binomial coefficient
+     * <sup>m + n</sup>C<sub>n</sub> (the number of ways to choose which of
+     * the m + n moves go down), built from its prime factorization. It
+     * handles grids that are hundreds of thousands of cells wide.
+     *
+     * @param m The number of rows.
+     * @param n The number of columns.
+     * @return The number of lattice paths possible.
+     */
+    public static BigInteger primeFactorApproach(int m, int n) {
+        return Count.combinations((long) m + n, n,
+                Count.BinomialAlgorithm.PRIME_FACTORS);
+    }
 }
@@ -25,6 +25,7 @@
 package ml.cristatus.euler.problems1to10.problem1;
 
 import ml.cristatus.euler.BaseSolver;
+import ml.cristatus.euler.utils.MultipleSum;
 
 import java.math.BigInteger;
 
@@ -48,6 +49,7 @@ public class Solver implements BaseSolver {
     public static void main(String[] args) {
         System.out.println(bruteForce(1000));
         System.out.println(sumOfMultiplesOf(3, 5, 1000));
+        System.out.println(inclusionExclusionApproach(1000, 3, 5));
     }
 
     /**
@@ -123,4 +125,24 @@ public class Solver implements BaseSolver {
         long n = (limit - 1) / number;  // exclude 'limit' itself
         return (number * n * (n + 1)) >>> 1;
     }
+
+    /**
+     * This method generalises the constant-time algorithm to any number of
+     * divisors, using inclusion and exclusion over the LCMs of the subsets
+     * of the divisors (see {@link MultipleSum}). The answer is exact for
+     * limits upto {@link Long#MAX_VALUE}.
+     * <h2>Time complexity:</h2>
+     * O(2<sup>k</sup>) for k divisors, but the subsets whose LCM reaches the
+     * limit are pruned along with their supersets.
+     * <h2>Space complexity:</h2>
+     * O(k), for the recursion over the divisors.
+     *
+     * @param limit    The (exclusive) limit for the calculation.
+     * @param divisors The numbers whose multiples are needed.
+     * @return The sum of the multiples of any of the divisors.
+     */
+    public static BigInteger inclusionExclusionApproach(long limit,
+                                                        long... divisors) {
+        return new MultipleSum(divisors).sumBelow(limit);
+    }
 }
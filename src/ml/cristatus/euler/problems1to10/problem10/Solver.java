@@ -25,7 +25,11 @@
 package ml.cristatus.euler.problems1to10.problem10;
 
 import ml.cristatus.euler.BaseSolver;
+import ml.cristatus.euler.utils.ParallelSieve;
+import ml.cristatus.euler.utils.PrimeBitmap;
+import ml.cristatus.euler.utils.PrimeCounting;
 import ml.cristatus.euler.utils.Primes;
+import ml.cristatus.euler.utils.SegmentedSieve;
 
 import java.math.BigInteger;
 import java.util.stream.LongStream;
@@ -49,6 +53,10 @@ public class Solver implements BaseSolver {
         int limit = 2_000_000;
         System.out.println(bruteForce(limit));
         System.out.println(sievedApproach(limit));
+        System.out.println(segmentedApproach(limit));
+        System.out.println(bitmapApproach(limit));
+        System.out.println(parallelApproach(limit));
+        System.out.println(sublinearApproach(limit));
     }
 
     /**
@@ -133,4 +141,51 @@ public class Solver implements BaseSolver {
         long[] primes = Primes.getPrimesUntil(limit);
         return LongStream.of(primes).sum();
     }
+
+    /**
+     * This method generates a compact bitmap of primes till the inclusive
+     * limit and adds up the primes marked in it.
+     *
+     * @param limit The inclusive upper limit.
+     * @return The solution using a bitmap.
+     */
+    public static long bitmapApproach(long limit) {
+        return new PrimeBitmap(limit).sum(0, limit + 1);
+    }
+
+    /**
+     * This method sifts the range block by block and adds up the primes as
+     * they are found. It needs only O(&radic;n) memory, so the limit is no
+     * longer restricted to an int.
+     *
+     * @param limit The inclusive upper limit.
+     * @return The solution using a segmented sieve.
+     */
+    public static long segmentedApproach(long limit) {
+        return new SegmentedSieve(0, limit + 1).sum();
+    }
+
+    /**
+     * This method sifts the range in parallel chunks and adds up the sums
+     * of the primes found in each of them.
+     *
+     * @param limit The inclusive upper limit.
+     * @return The solution using a parallel sieve.
+     */
+    public static long parallelApproach(long limit) {
+        return ParallelSieve.sum(0, limit + 1);
+    }
+
+    /**
+     * This method adds up the primes without sifting the whole range, using
+     * the O(n<sup>3/4</sup>) dynamic programming of Lucy_Hedgehog over the
+     * O(&radic;n) distinct values of limit / i. Since the sum may overflow a
+     * long for large limits, it is returned as a BigInteger.
+     *
+     * @param limit The inclusive upper limit.
+     * @return The solution in sublinear time.
+     */
+    public static BigInteger sublinearApproach(long limit) {
+        return PrimeCounting.sumUntil(limit);
+    }
 }
@@ -25,6 +25,7 @@
 package ml.cristatus.euler.problems1to10.problem2;
 
 import ml.cristatus.euler.BaseSolver;
+import ml.cristatus.euler.utils.Fibonacci;
 
 import java.math.BigInteger;
 
@@ -51,6 +52,8 @@ public class Solver implements BaseSolver {
     public static void main(String[] args) {
         bruteForce(4_000_000);
         betterBruteForce(4_000_000);
+        System.out.println(fastDoublingApproach(4_000_000));
+        System.out.println(fastDoublingApproach(BigInteger.TEN.pow(1000)));
     }
 
     /**
@@ -111,4 +114,31 @@ public class Solver implements BaseSolver {
         }
         return sum;
     }
+
+    /**
+     * This method uses the identity F(3) + F(6) + ... + F(3n) =
+     * (F(3n + 2) - 1) / 2, since the even terms are exactly the ones with
+     * an index divisible by 3. The index of the last term below the limit
+     * is estimated by Binet's formula and F(3n + 2) is computed by fast
+     * doubling (see {@link Fibonacci}).
+     * <h2>Time complexity:</h2>
+     * O(log n), where n is the index of the last term.
+     *
+     * @param limit The exclusive limit.
+     * @return The sum of even Fibonacci terms.
+     */
+    public static long fastDoublingApproach(long limit) {
+        return Fibonacci.evenSumBelow(limit);
+    }
+
+    /**
+     * This method is the same as {@link #fastDoublingApproach(long)}, but
+     * for limits of any size, like 10<sup>1000</sup>.
+     *
+     * @param limit The exclusive limit.
+     * @return The sum of even Fibonacci terms.
+     */
+    public static BigInteger fastDoublingApproach(BigInteger limit) {
+        return Fibonacci.evenSumBelow(limit);
+    }
 }
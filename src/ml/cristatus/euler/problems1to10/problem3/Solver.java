@@ -25,6 +25,7 @@
 package ml.cristatus.euler.problems1to10.problem3;
 
 import ml.cristatus.euler.BaseSolver;
+import ml.cristatus.euler.utils.Factorization;
 
 import java.math.BigInteger;
 
@@ -47,6 +48,7 @@ public class Solver implements BaseSolver {
     public static void main(String[] args) {
         bruteForce(600851475143L);
         betterBruteForce(600851475143L);
+        pollardApproach(600851475143L);
     }
 
     /**
@@ -127,4 +129,17 @@ public class Solver implements BaseSolver {
         }
         return number == 1 ? lastFactor : number;
     }
+
+    /**
+     * This method factorizes the number completely by trial division of the
+     * small factors followed by Pollard's rho algorithm, and returns the
+     * largest prime factor found. Unlike the methods above, it stays fast
+     * even for a semiprime near 2<sup>63</sup>.
+     *
+     * @param number The number whose largest prime factor is sought.
+     * @return The largest prime factor of the number.
+     */
+    public static long pollardApproach(long number) {
+        return Factorization.of(number).largestPrimeFactor();
+    }
 }
@@ -25,6 +25,9 @@
 package ml.cristatus.euler.problems1to10.problem5;
 
 import ml.cristatus.euler.BaseSolver;
+import ml.cristatus.euler.utils.Arithmetic;
+import ml.cristatus.euler.utils.FactorSieve;
+import ml.cristatus.euler.utils.LCM;
 import ml.cristatus.euler.utils.Primes;
 
 import java.math.BigInteger;
@@ -53,6 +56,9 @@ public class Solver implements BaseSolver {
     public static void main(String[] args) {
         System.out.println(bruteForce(20));
         System.out.println(cacheAndConquer(20));
+        System.out.println(factorSieveApproach(20));
+        System.out.println(primePowerApproach(20));
+        System.out.println(modularApproach(20, 1_000_000_007));
     }
 
     /**
@@ -117,11 +123,67 @@ public class Solver implements BaseSolver {
         for (long prime : primes) {
             long power = 1;
             if (prime <= limit) {
-                // The maximum power of this prime :
-                power = (long) (log(number) / log(prime));
+                // The maximum power of this prime (with integers alone, as
+                // the doubles may misround at the exact powers) :
+                power = Arithmetic.floorLog(number, prime);
             }
             product *= (long) pow(prime, power);
         }
         return product;
     }
-}
\ No newline at end of file
+
+    /**
+     * This method factorizes every number upto the argument with a table of
+     * smallest prime factors and keeps track of the highest power of each
+     * prime seen so far, which is the power present in the least common
+     * multiple.
+     *
+     * @param number The required argument, upto which the numbers be processed.
+     * @return The solution obtained by factorizing with a table.
+     */
+    public static long factorSieveApproach(int number) {
+        FactorSieve sieve = new FactorSieve(number);
+        int[] maxExponents = new int[number + 1];
+        int[] primes = new int[FactorSieve.MAX_DISTINCT_PRIMES];
+        int[] exponents = new int[FactorSieve.MAX_DISTINCT_PRIMES];
+        long product = 1;
+        for (int i = 2; i <= number; i++) {
+            int count = sieve.factorize(i, primes, exponents);
+            for (int j = 0; j < count; j++) {
+                // multiply in only the part of the power not seen before
+                for (int k = maxExponents[primes[j]]; k < exponents[j]; k++) {
+                    product *= primes[j];
+                }
+                maxExponents[primes[j]]
+                        = Math.max(maxExponents[primes[j]], exponents[j]);
+            }
+        }
+        return product;
+    }
+
+    /**
+     * This method multiplies the largest power of every prime that does
+     * not exceed the argument, like {@link #cacheAndConquer(long)}, but
+     * with BigIntegers and a balanced product tree. So it never overflows.
+     *
+     * @param number The required argument, upto which the numbers be processed.
+     * @return The solution obtained from prime powers.
+     * @see LCM#until(int)
+     */
+    public static BigInteger primePowerApproach(int number) {
+        return LCM.until(number);
+    }
+
+    /**
+     * This method returns the solution modulo the given modulus.
+     *
+     * @param number  The required argument, upto which the numbers be
+     *                processed.
+     * @param modulus The positive modulus.
+     * @return The solution modulo the given modulus.
+     * @see LCM#until(int, long)
+     */
+    public static long modularApproach(int number, long modulus) {
+        return LCM.until(number, modulus);
+    }
+}
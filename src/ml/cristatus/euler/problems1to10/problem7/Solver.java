@@ -25,7 +25,10 @@
 package ml.cristatus.euler.problems1to10.problem7;
 
 import ml.cristatus.euler.BaseSolver;
+import ml.cristatus.euler.utils.ParallelSieve;
+import ml.cristatus.euler.utils.PrimeBitmap;
 import ml.cristatus.euler.utils.Primes;
+import ml.cristatus.euler.utils.SegmentedSieve;
 
 import java.math.BigInteger;
 
@@ -49,6 +52,10 @@ public class Solver implements BaseSolver {
     public static void main(String[] args) {
         System.out.println(bruteForce(10_001));
         System.out.println(sievedApproach(10_001));
+        System.out.println(segmentedApproach(10_001));
+        System.out.println(bitmapApproach(10_001));
+        System.out.println(parallelApproach(10_001));
+        System.out.println(lazyApproach(10_001));
     }
 
     /**
@@ -139,4 +146,57 @@ public class Solver implements BaseSolver {
         // have occurred.
         throw new InternalError("Possible overflow due to overly large 'n'");
     }
+
+    /**
+     * This method generates a compact bitmap of primes upto an estimate and
+     * then counts its set bits a word at a time to locate the nth prime.
+     *
+     * @param n The rank of the required prime.
+     * @return The nth prime using a bitmap.
+     */
+    public static long bitmapApproach(long n) {
+        // p(n) < n(log n + log log n) for n >= 6 (Rosser's theorem)
+        long bound = n < 6 ? 12
+                : (long) (n * (Math.log(n) + Math.log(Math.log(n))));
+        return new PrimeBitmap(bound).nth(n);
+    }
+
+    /**
+     * This method sifts the range upto an upper bound for the nth prime
+     * block by block, without ever holding the entire sieve in memory. As a
+     * result, it is capable of handling values of n far beyond the reach of
+     * {@link #sievedApproach(long)}.
+     *
+     * @param n The rank of the required prime.
+     * @return The nth prime using a segmented sieve.
+     */
+    public static long segmentedApproach(long n) {
+        // p(n) < n(log n + log log n) for n >= 6 (Rosser's theorem)
+        long bound = n < 6 ? 12
+                : (long) (n * (Math.log(n) + Math.log(Math.log(n))));
+        return new SegmentedSieve(0, bound + 1).nth(n);
+    }
+
+    /**
+     * This method counts the primes upto an estimate in parallel chunks, and
+     * then sifts only the chunk that contains the nth prime once more.
+     *
+     * @param n The rank of the required prime.
+     * @return The nth prime using a parallel sieve.
+     */
+    public static long parallelApproach(long n) {
+        return ParallelSieve.nth(n);
+    }
+
+    /**
+     * This method reads the primes off a lazy stream, which sifts only as
+     * many blocks as are needed to reach the nth prime. It therefore needs
+     * no estimate of the nth prime at all.
+     *
+     * @param n The rank of the required prime.
+     * @return The nth prime using a lazy stream of primes.
+     */
+    public static long lazyApproach(long n) {
+        return Primes.stream().skip(n - 1).findFirst().getAsLong();
+    }
 }
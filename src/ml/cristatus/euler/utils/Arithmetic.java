@@ -0,0 +1,268 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+/**
+ * This is a utility class that contains small integer arithmetic routines
+ * that are shared by the other utilities, such as exact integer square roots
+ * and overflow-free modular multiplication.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class Arithmetic {
+
+    /**
+     * The largest long whose square does not overflow a long.
+     */
+    private static final long MAX_SQUARE_ROOT = 3_037_000_499L;
+
+    /**
+     * The mask of a 32-bit digit.
+     */
+    private static final long DIGIT_MASK = 0xFFFFFFFFL;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Arithmetic() {
+    }
+
+    /**
+     * Returns the floor of the square root of the given non-negative number.
+     * Unlike {@code (long) Math.sqrt(n)}, the result is exact even for
+     * values of n beyond 2<sup>52</sup>, where a double can no longer hold
+     * every long.
+     *
+     * @param n The non-negative number whose square root is sought.
+     * @return The largest r such that r * r &le; n.
+     */
+    public static long isqrt(final long n) {
+        if (n < 0)
+            throw new IllegalArgumentException("Negative argument : " + n);
+        long root = (long) Math.sqrt(n);
+        // correct the (at most off-by-one) floating point estimate
+        while (root * root > n)
+            root--;
+        while (root < MAX_SQUARE_ROOT && (root + 1) * (root + 1) <= n)
+            root++;
+        return root;
+    }
+
+    /**
+     * Returns the high 64 bits of the signed 128-bit product of the two
+     * arguments. This is equivalent to {@code Math.multiplyHigh}, which is
+     * not available before Java 9.
+     *
+     * @param x The first value.
+     * @param y The second value.
+     * @return The high 64 bits of the signed product.
+     */
+    public static long multiplyHigh(final long x, final long y) {
+        long x1 = x >> 32;
+        long x2 = x & 0xFFFFFFFFL;
+        long y1 = y >> 32;
+        long y2 = y & 0xFFFFFFFFL;
+
+        long z2 = x2 * y2;
+        long t = x1 * y2 + (z2 >>> 32);
+        long z1 = (t & 0xFFFFFFFFL) + x2 * y1;
+        long z0 = t >> 32;
+
+        return x1 * y1 + z0 + (z1 >> 32);
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128-bit product of the two
+     * arguments, which are treated as unsigned values.
+     *
+     * @param x The first value.
+     * @param y The second value.
+     * @return The high 64 bits of the unsigned product.
+     */
+    public static long unsignedMultiplyHigh(final long x, final long y) {
+        return multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * Returns (a &times; b) mod m without overflow, for any positive modulus.
+     * <p>
+     * The product is computed directly if it is known to fit in a long.
+     * Otherwise, the full 128-bit product is reduced by long division in
+     * 32-bit digits (Knuth's Algorithm D, as in Hacker's Delight), which
+     * needs just two digits of the quotient.
+     *
+     * @param a       The first factor, in the range [0, m).
+     * @param b       The second factor, in the range [0, m).
+     * @param modulus The positive modulus.
+     * @return (a &times; b) mod m.
+     */
+    public static long mulMod(final long a, final long b, final long modulus) {
+        if (a <= MAX_SQUARE_ROOT && b <= MAX_SQUARE_ROOT)
+            return a * b % modulus;
+        long high = unsignedMultiplyHigh(a, b);
+        long low = a * b;
+        if (high == 0 && low >= 0)
+            return low % modulus;
+        // since a, b < m, the high part is already less than m
+        return remainder(high, low, modulus);
+    }
+
+    /**
+     * Returns the remainder of the unsigned 128-bit number with the given
+     * high and low parts, divided by the modulus.
+     *
+     * @param high    The high 64 bits, less than m.
+     * @param low     The low 64 bits.
+     * @param modulus The positive modulus.
+     * @return The 128-bit number mod m.
+     */
+    private static long remainder(final long high, final long low,
+                                  final long modulus) {
+        // normalise, so that the top bit of the divisor is set; the shift is
+        // at least 1, since the modulus is positive
+        int shift = Long.numberOfLeadingZeros(modulus);
+        long divisor = modulus << shift;
+        long top = (high << shift) | (low >>> (Long.SIZE - shift));
+        long bottom = low << shift;
+        long r = remainderStep(top, bottom >>> 32, divisor);
+        r = remainderStep(r, bottom & DIGIT_MASK, divisor);
+        return r >>> shift;
+    }
+
+    /**
+     * Returns the remainder of (u &times; 2<sup>32</sup> + digit) divided by
+     * the normalised divisor, where u is less than the divisor. The digit of
+     * the quotient is estimated from the top digit of the divisor and then
+     * corrected (at most twice).
+     *
+     * @param u       The unsigned partial remainder, less than the divisor.
+     * @param digit   The next 32-bit digit of the dividend.
+     * @param divisor The divisor, with its top bit set.
+     * @return The unsigned remainder, less than the divisor.
+     */
+    private static long remainderStep(final long u, final long digit,
+                                      final long divisor) {
+        long high = divisor >>> 32, low = divisor & DIGIT_MASK;
+        long q = divideUnsigned(u, high);
+        long rest = u - q * high;
+        while (q > DIGIT_MASK || Long.compareUnsigned(q * low,
+                (rest << 32) | digit) > 0) {
+            q--;
+            rest += high;
+            if (rest > DIGIT_MASK)
+                break;
+        }
+        // the true remainder fits in 64 bits, so the overflow cancels out
+        return ((u << 32) | digit) - q * divisor;
+    }
+
+    /**
+     * Returns the quotient of the unsigned dividend and a positive divisor
+     * below 2<sup>32</sup>. Unlike {@code Long.divideUnsigned}, it never
+     * falls back to BigInteger on Java 8.
+     *
+     * @param dividend The unsigned dividend.
+     * @param divisor  The divisor, in the range [1, 2<sup>32</sup>).
+     * @return The unsigned quotient.
+     */
+    private static long divideUnsigned(final long dividend,
+                                       final long divisor) {
+        if (dividend >= 0)
+            return dividend / divisor;
+        long quotient = ((dividend >>> 1) / divisor) << 1;
+        long remainder = dividend - quotient * divisor;
+        return remainder >= divisor ? quotient + 1 : quotient;
+    }
+
+    /**
+     * Returns (base <sup>exponent</sup>) mod m using binary exponentiation.
+     *
+     * @param base     The base, in the range [0, m).
+     * @param exponent The non-negative exponent.
+     * @param modulus  The positive modulus.
+     * @return (base <sup>exponent</sup>) mod m.
+     */
+    public static long powMod(long base, long exponent, final long modulus) {
+        long result = 1 % modulus;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1)
+                result = mulMod(result, base, modulus);
+            base = mulMod(base, base, modulus);
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the inverse of the given number modulo m, i.e. the x in
+     * [0, m) such that a &middot; x &equiv; 1 (mod m), using the extended
+     * Euclidean algorithm.
+     *
+     * @param a       The number to invert, in the range [0, m).
+     * @param modulus The positive modulus.
+     * @return The inverse of a modulo m.
+     * @throws ArithmeticException If a and m are not coprime.
+     */
+    public static long modInverse(final long a, final long modulus) {
+        // invariant: x0 * a = r0 and x1 * a = r1 (mod m)
+        long r0 = modulus, r1 = a, x0 = 0, x1 = 1;
+        while (r1 != 0) {
+            long q = r0 / r1, t = r0 - q * r1;
+            r0 = r1;
+            r1 = t;
+            t = x0 - q * x1;
+            x0 = x1;
+            x1 = t;
+        }
+        if (r0 != 1)
+            throw new ArithmeticException
+                    (a + " is not invertible modulo " + modulus);
+        return x0 < 0 ? x0 + modulus : x0;
+    }
+
+    /**
+     * Returns the floor of the logarithm of n to the given base, i.e. the
+     * largest e such that base<sup>e</sup> &le; n, computed with integers
+     * alone. Unlike {@code (long) (Math.log(n) / Math.log(base))}, it can
+     * never be misrounded at the exact powers of the base.
+     *
+     * @param n    The positive number.
+     * @param base The base, which must be at least 2.
+     * @return The floor of the logarithm of n to the given base.
+     */
+    public static int floorLog(final long n, final long base) {
+        if (n < 1)
+            throw new IllegalArgumentException("Invalid argument : " + n);
+        if (base < 2)
+            throw new IllegalArgumentException("Invalid base : " + base);
+        int exponent = 0;
+        // compare with n / base so that the power never overflows
+        for (long power = 1; power <= n / base; power *= base) {
+            exponent++;
+        }
+        return exponent;
+    }
+}
@@ -25,6 +25,7 @@
 package ml.cristatus.euler.utils;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 import static java.math.BigInteger.*;
 
@@ -44,7 +45,28 @@ public class Count {
      * @return The factorial of the given number.
      */
     public static BigInteger factorialOf(long number) {
-        return new ParallelMultiplier(ONE, valueOf(number + 1)).compute();
+        return ParallelMultiplier.product(ONE, valueOf(number + 1));
+    }
+
+    /**
+     * This methods calculates the factorial of the given Long, using the
+     * desired algorithm.
+     *
+     * @param number    The number whose factorial to calculate.
+     * @param algorithm The algorithm to use.
+     * @return The factorial of the given number.
+     */
+    public static BigInteger factorialOf(long number,
+                                         FactorialAlgorithm algorithm) {
+        switch (algorithm) {
+            case PRODUCT:
+                return factorialOf(number);
+            case PRIME_SWING:
+                return primeSwingFactorialOf(number);
+            default:
+                throw new IllegalArgumentException
+                        ("Unknown algorithm : " + algorithm);
+        }
     }
 
     /**
@@ -54,7 +76,100 @@ public class Count {
      * @return The factorial of the given number.
      */
     public static BigInteger factorialOf(BigInteger integer) {
-        return new ParallelMultiplier(ONE, integer.add(ONE)).compute();
+        return ParallelMultiplier.product(ONE, integer.add(ONE));
+    }
+
+    /**
+     * This methods calculates the factorial of the given BigInteger, using
+     * the desired algorithm.
+     *
+     * @param integer   The integer whose factorial to calculate.
+     * @param algorithm The algorithm to use.
+     * @return The factorial of the given number.
+     */
+    public static BigInteger factorialOf(BigInteger integer,
+                                         FactorialAlgorithm algorithm) {
+        if (algorithm == FactorialAlgorithm.PRODUCT)
+            return factorialOf(integer);
+        if (integer.bitLength() > 31)
+            throw new IllegalArgumentException
+                    ("Too large for " + algorithm + " : " + integer);
+        return factorialOf(integer.longValue(), algorithm);
+    }
+
+    /**
+     * Calculates the factorial with the prime swing algorithm of Peter
+     * Luschny. It is based on the identity n! = ((n / 2)!)<sup>2</sup>
+     * &middot; n&#8768;, where the swing n&#8768; = n! / ((n / 2)!)<sup>2
+     * </sup> is the product of every prime p &le; n raised to the number of
+     * odd quotients among n / p, n / p<sup>2</sup>, ... . So there are only
+     * O(log n) large squarings and multiplications, and the prime powers of
+     * every swing are multiplied with a {@link ProductTree}. The powers of 2
+     * are left out of the swings and shifted in at the end, since n! has
+     * exactly n - (number of 1 bits in n) of them.
+     * <h2>Time complexity:</h2>
+     * O(M(n log n) log n), where M(k) is the cost of multiplying two k-bit
+     * numbers.
+     *
+     * @param number The number whose factorial to calculate.
+     * @return The factorial of the given number.
+     */
+    private static BigInteger primeSwingFactorialOf(long number) {
+        if (number < 0 || number >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException
+                    ("Invalid argument for prime swing : " + number);
+        if (number < 2)
+            return ONE;
+        long[] primes = Primes.getPrimesUntil((int) number);
+        return oddFactorialOf(number, primes)
+                .shiftLeft((int) (number - Long.bitCount(number)));
+    }
+
+    /**
+     * Returns the odd part of the factorial of the given number.
+     *
+     * @param number The number whose factorial to calculate.
+     * @param primes The primes upto (at least) the number.
+     * @return The odd part of the factorial.
+     */
+    private static BigInteger oddFactorialOf(long number, long[] primes) {
+        if (number < 2)
+            return ONE;
+        BigInteger half = oddFactorialOf(number >>> 1, primes);
+        return half.multiply(half).multiply(oddSwingOf(number, primes));
+    }
+
+    /**
+     * Returns the odd part of the swing of the given number.
+     *
+     * @param number The number whose swing is sought.
+     * @param primes The primes upto (at least) the number.
+     * @return The odd part of the swing.
+     */
+    private static BigInteger oddSwingOf(long number, long[] primes) {
+        long[] powers = new long[primes.length];
+        int count = 0;
+        long root = Arithmetic.isqrt(number);
+        for (int i = 1; i < primes.length; i++) {
+            long prime = primes[i];
+            if (prime > number)
+                break;
+            if (prime > root) {
+                // only the quotient n / p is non-zero; the primes in
+                // (n / 3, n / 2] are skipped by this as well
+                if (((number / prime) & 1) != 0)
+                    powers[count++] = prime;
+                continue;
+            }
+            long power = 1;
+            for (long q = number / prime; q > 0; q /= prime) {
+                if ((q & 1) != 0)
+                    power *= prime;
+            }
+            if (power > 1)
+                powers[count++] = power;
+        }
+        return ProductTree.of(Arrays.copyOf(powers, count));
     }
 
     /**
@@ -67,12 +182,20 @@ public class Count {
      */
     public static BigInteger combinations(long n, long r) {
         // speedy exits
-        if (n == r || r == 1)
+        if (n == r)
             return ONE;
+        if (r == 1)
+            return valueOf(n);
         if (n < r)
             throw new IllegalArgumentException
                     ("Invalid parameter for 'r' : " + r);
 
+        try {
+            return valueOf(combinationsAsLong(n, r));
+        } catch (ArithmeticException overflow) {
+            // the result needs a BigInteger
+        }
+
         // A simple trick to reduce the number of operations
         if (r + r > n)
             r = n - r;
@@ -84,6 +207,142 @@ public class Count {
         return product;
     }
 
+    /**
+     * Calculates the number of combinations of r distinct elements out of n
+     * distinct elements (i.e. n choose r) with longs alone. At step i, the
+     * running value C(n - r + i - 1, i - 1) is multiplied by n - r + i and
+     * divided by i, which gives C(n - r + i, i). When the product might
+     * overflow, the GCD of the value and i is divided out first, which keeps
+     * every intermediate product within the final result. So an overflow is
+     * only reported when the result itself does not fit in a long.
+     *
+     * @param n The total number of elements.
+     * @param r The number of elements to choose.
+     * @return <sup>n</sup>C<sub>r</sub> or "n choose r".
+     * @throws ArithmeticException If the result overflows a long.
+     */
+    public static long combinationsAsLong(long n, long r) {
+        if (r < 0 || n < r)
+            throw new IllegalArgumentException
+                    ("Invalid parameter for 'r' : " + r);
+        if (r + r > n)
+            r = n - r;
+        long result = 1, base = n - r;
+        for (long i = 1; i <= r; i++) {
+            long factor = base + i;
+            if (Long.numberOfLeadingZeros(result)
+                    + Long.numberOfLeadingZeros(factor) >= 65) {
+                // the product surely fits, so no GCD is needed
+                result = result * factor / i;
+                continue;
+            }
+            // one remainder first, so that the GCD works on small numbers
+            long gcd = GCD.of(i, result % i);
+            // i / gcd must divide n - r + i, as their product is exact
+            result = Math.multiplyExact(result / gcd, factor / (i / gcd));
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the number of permutations of r distinct elements out of n
+     * distinct elements with longs alone.
+     *
+     * @param n The total number of elements.
+     * @param r The number of elements to choose.
+     * @return <sup>n</sup>P<sub>r</sub>.
+     * @throws ArithmeticException If the result overflows a long.
+     */
+    public static long permutationsAsLong(long n, long r) {
+        if (r < 0 || n < r)
+            throw new IllegalArgumentException
+                    ("Invalid parameter for 'r' : " + r);
+        long result = 1;
+        for (long i = n - r + 1; i <= n; i++) {
+            result = Math.multiplyExact(result, i);
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the number of combinations of r distinct elements out of n
+     * distinct elements (i.e. n choose r), using the desired algorithm.
+     *
+     * @param n         The total number of elements.
+     * @param r         The number of elements to choose.
+     * @param algorithm The algorithm to use.
+     * @return <sup>n</sup>C<sub>r</sub> or "n choose r".
+     */
+    public static BigInteger combinations(long n, long r,
+                                          BinomialAlgorithm algorithm) {
+        switch (algorithm) {
+            case MULTIPLY_DIVIDE:
+                return combinations(n, r);
+            case PRIME_FACTORS:
+                return primeFactorCombinations(n, r);
+            default:
+                throw new IllegalArgumentException
+                        ("Unknown algorithm : " + algorithm);
+        }
+    }
+
+    /**
+     * Calculates n choose r from its prime factorization. By Legendre's
+     * formula, the exponent of a prime p in n! is the sum of n / p<sup>k
+     * </sup> over all k, so its exponent in n! / (r! (n - r)!) is
+     * <p style="text-align:center;">&Sigma; (n / p<sup>k</sup> -
+     * r / p<sup>k</sup> - (n - r) / p<sup>k</sup>)</p>
+     * which (by Kummer's theorem) is the number of carries when r and
+     * n - r are added in base p. Every prime above &radic;n thus has an
+     * exponent of 0 or 1, and every prime power fits in a long. The powers
+     * are finally multiplied with a {@link ProductTree}.
+     * <h2>Time complexity:</h2>
+     * O(n log log n) for the sieve, plus O(M(b) log b) for the product,
+     * where b is the number of bits in the result.
+     *
+     * @param n The total number of elements.
+     * @param r The number of elements to choose.
+     * @return <sup>n</sup>C<sub>r</sub> or "n choose r".
+     */
+    private static BigInteger primeFactorCombinations(long n, long r) {
+        if (r < 0 || n < r)
+            throw new IllegalArgumentException
+                    ("Invalid parameter for 'r' : " + r);
+        if (n >= Integer.MAX_VALUE)
+            throw new IllegalArgumentException
+                    ("Invalid parameter for 'n' : " + n);
+        if (r + r > n)
+            r = n - r;
+        if (r == 0)
+            return ONE;
+        long[] primes = Primes.getPrimesUntil((int) n);
+        long[] powers = new long[primes.length];
+        int count = 0;
+        long root = Arithmetic.isqrt(n), rest = n - r;
+        for (long prime : primes) {
+            if (prime > rest) {
+                // every prime in (n - r, n] divides the numerator once
+                powers[count++] = prime;
+                continue;
+            }
+            if (prime > root) {
+                if (n / prime - r / prime - rest / prime != 0)
+                    powers[count++] = prime;
+                continue;
+            }
+            long power = 1;
+            for (long q = prime; q <= n; q *= prime) {
+                if (n / q - r / q - rest / q != 0)
+                    power *= prime;
+                if (q > n / prime)
+                    break;
+            }
+            if (power > 1)
+                powers[count++] = power;
+        }
+        return ProductTree.of(Arrays.copyOf(powers, count));
+    }
+
     /**
      * Calculates the number of permutations of r distinct elements out of n
      * distinct elements (i.e. number of ways in which r distinct elements
@@ -103,8 +362,44 @@ public class Count {
             throw new IllegalArgumentException
                     ("Invalid parameter for 'r' : " + r);
 
+        try {
+            return valueOf(permutationsAsLong(n, r));
+        } catch (ArithmeticException overflow) {
+            // the result needs a BigInteger
+        }
+
         long nPlus1 = n + 1;
-        return new ParallelMultiplier
-                (valueOf(nPlus1 - r), valueOf(nPlus1)).compute();
+        return ParallelMultiplier.product(valueOf(nPlus1 - r), valueOf(nPlus1));
+    }
+
+    /**
+     * The algorithms that can be used to calculate factorials.
+     */
+    public enum FactorialAlgorithm {
+        /**
+         * Multiplies all the integers upto n with a
+         * {@link ParallelMultiplier}.
+         */
+        PRODUCT,
+        /**
+         * Builds n! from the prime powers of the swing numbers and repeated
+         * squaring, after Luschny.
+         */
+        PRIME_SWING
+    }
+
+    /**
+     * The algorithms that can be used to calculate binomial coefficients.
+     */
+    public enum BinomialAlgorithm {
+        /**
+         * Multiplies by n, n - 1, ... and divides by 1, 2, ... in turn.
+         */
+        MULTIPLY_DIVIDE,
+        /**
+         * Builds the result from its prime factorization, found with
+         * Legendre's formula.
+         */
+        PRIME_FACTORS
     }
 }
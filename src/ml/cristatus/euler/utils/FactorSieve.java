@@ -0,0 +1,284 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+/**
+ * This is a table of the smallest prime factor of every integer upto a
+ * limit, which is built with a linear sieve (every composite is crossed off
+ * exactly once, by its smallest prime factor). Once built, any number in
+ * the table can be factorized in O(log n) steps by repeatedly dividing out
+ * its smallest prime factor, without any trial division or allocation.
+ * For example,
+ * <pre><code>
+ *  // ...
+ *  FactorSieve sieve = new FactorSieve(someLimit);
+ *  int[] primes = new int[FactorSieve.MAX_DISTINCT_PRIMES];
+ *  int[] exponents = new int[FactorSieve.MAX_DISTINCT_PRIMES];
+ *  for (int n = 2; n &lt;= someLimit; n++) {
+ *      int count = sieve.factorize(n, primes, exponents);
+ *      // ... do operations with the factors
+ *  }
+ *  // ...
+ * </code></pre>
+ * <h2>Time complexity:</h2>
+ * O(n) for construction and O(log n) per query.
+ * <h2>Space complexity:</h2>
+ * O(n)
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class FactorSieve {
+
+    /**
+     * The maximum number of distinct prime factors of a positive int, which
+     * is a sufficient length for the arrays passed to
+     * {@link #factorize(int, int[], int[])}.
+     */
+    public static final int MAX_DISTINCT_PRIMES = 9;
+
+    private final int limit;
+    private final int[] smallest;
+
+    /**
+     * Creates a new FactorSieve for all the numbers upto the given inclusive
+     * limit.
+     *
+     * @param limit The inclusive upper limit.
+     */
+    public FactorSieve(final int limit) {
+        if (limit < 1 || limit == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        this.limit = limit;
+        smallest = new int[limit + 1];
+        smallest[1] = 1;
+        int[] primes = new int[primeCountBound(limit)];
+        int count = 0;
+        for (int i = 2; i <= limit; i++) {
+            if (smallest[i] == 0) {
+                smallest[i] = i;
+                primes[count++] = i;
+            }
+            // cross off i * p for every prime p upto the smallest factor of i
+            int factor = smallest[i];
+            for (int j = 0; j < count; j++) {
+                int prime = primes[j];
+                if (prime > factor || (long) prime * i > limit)
+                    break;
+                smallest[prime * i] = prime;
+            }
+        }
+    }
+
+    /**
+     * Returns the inclusive limit upto which this table is valid.
+     *
+     * @return The inclusive limit of this table.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns {@code true} if the given number is prime.
+     *
+     * @param number The number whose primality is to be determined.
+     * @return {@code true} if the number is prime.
+     */
+    public boolean isPrime(final int number) {
+        checkBounds(number);
+        return number > 1 && smallest[number] == number;
+    }
+
+    /**
+     * Returns the smallest prime factor of the given number, or 1 for 1.
+     *
+     * @param number The number whose smallest prime factor is sought.
+     * @return The smallest prime factor of the number.
+     */
+    public int smallestFactorOf(final int number) {
+        checkBounds(number);
+        return smallest[number];
+    }
+
+    /**
+     * Factorizes the given number into the given arrays, which must have a
+     * length of at least {@link #MAX_DISTINCT_PRIMES} (or the number of
+     * distinct prime factors of the number). The primes are stored in
+     * ascending order.
+     *
+     * @param number    The number to factorize.
+     * @param primes    The array to store the distinct prime factors in.
+     * @param exponents The array to store their exponents in.
+     * @return The number of distinct prime factors.
+     */
+    public int factorize(int number, final int[] primes,
+                         final int[] exponents) {
+        checkBounds(number);
+        int count = 0;
+        while (number > 1) {
+            int prime = smallest[number];
+            int exponent = 0;
+            do {
+                number /= prime;
+                exponent++;
+            } while (smallest[number] == prime);
+            primes[count] = prime;
+            exponents[count++] = exponent;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of divisors of the given number, &tau;(n).
+     *
+     * @param number The number whose divisors are to be counted.
+     * @return The number of divisors of the number.
+     */
+    public int divisorCount(int number) {
+        checkBounds(number);
+        int count = 1;
+        while (number > 1) {
+            int prime = smallest[number];
+            int exponent = 0;
+            do {
+                number /= prime;
+                exponent++;
+            } while (smallest[number] == prime);
+            count *= exponent + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the divisors of the given number, &sigma;(n).
+     *
+     * @param number The number whose divisors are to be added up.
+     * @return The sum of the divisors of the number.
+     */
+    public long divisorSum(int number) {
+        checkBounds(number);
+        long sum = 1;
+        while (number > 1) {
+            int prime = smallest[number];
+            // 1 + p + p^2 + ... + p^e
+            long term = 1, power = 1;
+            do {
+                number /= prime;
+                power *= prime;
+                term += power;
+            } while (smallest[number] == prime);
+            sum *= term;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the number of integers in [1, n] that are coprime to the given
+     * number, i.e. Euler's totient &phi;(n).
+     *
+     * @param number The number whose totient is sought.
+     * @return The totient of the number.
+     */
+    public int totient(int number) {
+        checkBounds(number);
+        int totient = number;
+        while (number > 1) {
+            int prime = smallest[number];
+            totient -= totient / prime;
+            do {
+                number /= prime;
+            } while (smallest[number] == prime);
+        }
+        return totient;
+    }
+
+    /**
+     * Returns a table of the number of divisors &tau;(n) of every integer
+     * upto the given inclusive limit, computed with a linear sieve. This is
+     * cheaper than building a FactorSieve and querying every entry, since
+     * &tau; is multiplicative and each entry is derived from a smaller one
+     * in constant time. The entry at index 0 is 0.
+     *
+     * @param limit The inclusive upper limit.
+     * @return The divisor counts of all the numbers upto the limit.
+     */
+    public static int[] divisorCountsUntil(final int limit) {
+        if (limit < 1 || limit == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        int[] counts = new int[limit + 1];
+        // the exponent of the smallest prime factor of every number
+        byte[] exponents = new byte[limit + 1];
+        int[] primes = new int[primeCountBound(limit)];
+        int count = 0;
+        counts[1] = 1;
+        for (int i = 2; i <= limit; i++) {
+            if (counts[i] == 0) {
+                counts[i] = 2;
+                exponents[i] = 1;
+                primes[count++] = i;
+            }
+            for (int j = 0; j < count; j++) {
+                int prime = primes[j];
+                if ((long) prime * i > limit)
+                    break;
+                int multiple = prime * i;
+                if (i % prime == 0) {
+                    // prime is the smallest factor of i: raise its exponent
+                    int exponent = exponents[i];
+                    exponents[multiple] = (byte) (exponent + 1);
+                    counts[multiple]
+                            = counts[i] / (exponent + 1) * (exponent + 2);
+                    break;
+                }
+                exponents[multiple] = 1;
+                counts[multiple] = counts[i] << 1;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns an upper bound on the number of primes upto the given limit.
+     *
+     * @param limit The inclusive limit.
+     * @return An upper bound on &pi;(limit).
+     */
+    private static int primeCountBound(final int limit) {
+        // pi(x) < 1.25506 x / log x for x > 1
+        return limit < 17 ? 7 : (int) (1.25506 * limit / Math.log(limit)) + 1;
+    }
+
+    /**
+     * Complains if the given number lies outside this table.
+     *
+     * @param number The number to check.
+     */
+    private void checkBounds(final int number) {
+        if (number < 1 || number > limit)
+            throw new IllegalArgumentException
+                    ("Outside the table [1, " + limit + "] : " + number);
+    }
+}
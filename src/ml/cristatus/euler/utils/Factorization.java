@@ -0,0 +1,250 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.util.Arrays;
+
+/**
+ * This class represents the prime factorization of a positive long as a
+ * pair of primitive arrays: the distinct prime factors in ascending order
+ * and their respective exponents. For example,
+ * <pre><code>
+ * ...
+ * Factorization factorization = Factorization.of(number);
+ * long[] primes = factorization.getPrimes();
+ * int[] exponents = factorization.getExponents();
+ * ...
+ * </code></pre>
+ * The factors are found in three stages:
+ * <ol>
+ * <li>Trial division by the primes below 1024.</li>
+ * <li>The Miller-Rabin test of {@link Primes#isPrime(long)}, to recognise
+ * the prime cofactors.</li>
+ * <li>Brent's variant of Pollard's rho algorithm, to split the composite
+ * cofactors. The differences are multiplied together in batches, so that
+ * {@link GCD#of(long, long)} is called only once per batch.</li>
+ * </ol>
+ * <h2>Time complexity:</h2>
+ * O(n<sup>1/4</sup>) expected, in the worst case of a semiprime.
+ * <h2>Space complexity:</h2>
+ * O(1)
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class Factorization {
+
+    /**
+     * The limit till which trial division is performed.
+     */
+    private static final int TRIAL_LIMIT = 1 << 10;
+
+    /**
+     * The primes used for trial division.
+     */
+    private static final long[] TRIAL_PRIMES
+            = Primes.getPrimesUntil(TRIAL_LIMIT);
+
+    /**
+     * The number of steps of the rho iteration between two GCDs.
+     */
+    private static final int BATCH_SIZE = 128;
+
+    private final long[] primes;
+    private final int[] exponents;
+
+    /**
+     * Creates a new Factorization with the given prime factors and their
+     * respective exponents.
+     *
+     * @param primes    The distinct prime factors in ascending order.
+     * @param exponents The exponents of the prime factors.
+     */
+    private Factorization(final long[] primes, final int[] exponents) {
+        this.primes = primes;
+        this.exponents = exponents;
+    }
+
+    /**
+     * Returns the prime factorization of the given positive number.
+     *
+     * @param number The number to factorize.
+     * @return The prime factorization of the number.
+     */
+    public static Factorization of(long number) {
+        if (number < 1)
+            throw new IllegalArgumentException
+                    ("Cannot factorize : " + number);
+        // a long has at most 62 prime factors, counting multiplicity
+        long[] factors = new long[64];
+        int count = 0;
+        for (long prime : TRIAL_PRIMES) {
+            if (prime * prime > number)
+                break;
+            while (number % prime == 0) {
+                factors[count++] = prime;
+                number /= prime;
+            }
+        }
+        if (number > 1)
+            count = split(number, factors, count);
+
+        Arrays.sort(factors, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || factors[i] != factors[i - 1])
+                distinct++;
+        }
+        long[] primes = new long[distinct];
+        int[] exponents = new int[distinct];
+        for (int i = 0, j = -1; i < count; i++) {
+            if (i == 0 || factors[i] != factors[i - 1])
+                primes[++j] = factors[i];
+            exponents[j]++;
+        }
+        return new Factorization(primes, exponents);
+    }
+
+    /**
+     * Returns the distinct prime factors in ascending order.
+     *
+     * @return The distinct prime factors.
+     */
+    public long[] getPrimes() {
+        return primes.clone();
+    }
+
+    /**
+     * Returns the exponents of the prime factors, in the same order as
+     * {@link #getPrimes()}.
+     *
+     * @return The exponents of the prime factors.
+     */
+    public int[] getExponents() {
+        return exponents.clone();
+    }
+
+    /**
+     * Returns the largest prime factor, or 1 if the number is 1.
+     *
+     * @return The largest prime factor.
+     */
+    public long largestPrimeFactor() {
+        return primes.length == 0 ? 1 : primes[primes.length - 1];
+    }
+
+    /**
+     * Returns the number of divisors of the number.
+     *
+     * @return The number of divisors of the number.
+     */
+    public long divisorCount() {
+        long count = 1;
+        for (int exponent : exponents) {
+            count *= exponent + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Splits a number that has no prime factors below the trial division
+     * limit into its prime factors.
+     *
+     * @param number  The number to split.
+     * @param factors The buffer which collects the prime factors.
+     * @param count   The number of factors already in the buffer.
+     * @return The new number of factors in the buffer.
+     */
+    private static int split(final long number, final long[] factors,
+                             int count) {
+        if (number < (long) TRIAL_LIMIT * TRIAL_LIMIT
+                || Primes.isPrime(number)) {
+            factors[count++] = number;
+            return count;
+        }
+        long divisor = pollardBrent(number);
+        count = split(divisor, factors, count);
+        return split(number / divisor, factors, count);
+    }
+
+    /**
+     * Returns a non-trivial divisor of the given odd composite number, using
+     * Brent's variant of Pollard's rho algorithm. The iteration is
+     * x &rarr; x<sup>2</sup> + c, carried out in Montgomery form.
+     *
+     * @param number The odd composite number.
+     * @return A non-trivial divisor of the number.
+     */
+    private static long pollardBrent(final long number) {
+        Montgomery montgomery = new Montgomery(number);
+        for (long c = 1; ; c++) {
+            long y = montgomery.toMontgomery(2);
+            long x = y, saved = y;
+            long product = montgomery.one();
+            long gcd = 1;
+            for (long r = 1; gcd == 1; r <<= 1) {
+                x = y;
+                for (long i = 0; i < r; i++) {
+                    y = step(montgomery, y, c, number);
+                }
+                for (long k = 0; k < r && gcd == 1; k += BATCH_SIZE) {
+                    saved = y;
+                    long steps = Math.min(BATCH_SIZE, r - k);
+                    for (long i = 0; i < steps; i++) {
+                        y = step(montgomery, y, c, number);
+                        product = montgomery.multiply(product, Math.abs(x - y));
+                    }
+                    gcd = GCD.of(product, number);
+                }
+            }
+            if (gcd == number) {
+                // the batch overshot, so retrace it one step at a time
+                do {
+                    saved = step(montgomery, saved, c, number);
+                    gcd = GCD.of(Math.abs(x - saved), number);
+                } while (gcd == 1);
+            }
+            if (gcd != number)
+                return gcd;
+            // the cycle closed without a factor, so try another polynomial
+        }
+    }
+
+    /**
+     * Returns y<sup>2</sup> + c mod n, where y is in Montgomery form.
+     *
+     * @param montgomery The Montgomery context for the modulus.
+     * @param y          The current value.
+     * @param c          The additive constant.
+     * @param modulus    The modulus.
+     * @return The next value in the sequence.
+     */
+    private static long step(final Montgomery montgomery, final long y,
+                             final long c, final long modulus) {
+        // avoids the overflow of y^2 + c beyond 2^63
+        long next = montgomery.multiply(y, y) - (modulus - c);
+        return next < 0 ? next + modulus : next;
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.math.BigInteger;
+
+/**
+ * This is a utility class that computes Fibonacci numbers by the fast
+ * doubling method, which is based on the identities
+ * <pre><code>
+ *  F(2k)     = F(k) (2 F(k + 1) - F(k))
+ *  F(2k + 1) = F(k)<sup>2</sup> + F(k + 1)<sup>2</sup>
+ * </code></pre>
+ * so that F(n) takes O(log n) steps instead of n additions. There are
+ * back-ends for longs (upto F(92)), for residues modulo a long and for
+ * BigIntegers. Here F(0) = 0 and F(1) = F(2) = 1.
+ * <p>
+ * It also adds up the even Fibonacci numbers below a limit. Every third
+ * term F(3k) is even (and no other term is), and
+ * <pre><code>
+ *  F(3) + F(6) + ... + F(3n) = (F(3n + 2) - 1) / 2
+ * </code></pre>
+ * So only the index of the last term below the limit is needed, which is
+ * estimated by Binet's formula, F(m) &asymp; &phi;<sup>m</sup> / &radic;5,
+ * and then corrected exactly.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class Fibonacci {
+
+    /**
+     * The largest index whose Fibonacci number fits in a long.
+     */
+    public static final int MAX_LONG_INDEX = 92;
+
+    private static final double LOG_PHI = Math.log((1 + Math.sqrt(5)) / 2);
+    private static final double LOG_SQRT_5 = Math.log(5) / 2;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Fibonacci() {
+    }
+
+    /**
+     * Returns the n<sup>th</sup> Fibonacci number as a long.
+     * <h2>Time complexity:</h2>
+     * O(log n)
+     *
+     * @param n The index, in the range [0, 92].
+     * @return The n<sup>th</sup> Fibonacci number.
+     */
+    public static long ofAsLong(final int n) {
+        if (n < 0 || n > MAX_LONG_INDEX)
+            throw new IllegalArgumentException("Invalid index : " + n);
+        // F(n + 1) may overflow on the last step, but since the arithmetic
+        // is exact modulo 2^64, F(n) itself is still correct
+        long a = 0, b = 1;
+        for (int bit = Integer.highestOneBit(n); bit != 0; bit >>>= 1) {
+            long c = a * ((b << 1) - a);
+            long d = a * a + b * b;
+            if ((n & bit) == 0) {
+                a = c;
+                b = d;
+            } else {
+                a = d;
+                b = c + d;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Returns the n<sup>th</sup> Fibonacci number modulo m.
+     * <h2>Time complexity:</h2>
+     * O(log n) modular multiplications.
+     *
+     * @param n       The non-negative index.
+     * @param modulus The positive modulus.
+     * @return The n<sup>th</sup> Fibonacci number modulo m.
+     */
+    public static long of(final long n, final long modulus) {
+        if (n < 0)
+            throw new IllegalArgumentException("Invalid index : " + n);
+        if (modulus < 1)
+            throw new IllegalArgumentException
+                    ("Invalid modulus : " + modulus);
+        long a = 0, b = 1 % modulus;
+        for (long bit = Long.highestOneBit(n); bit != 0; bit >>>= 1) {
+            // 2b - a, kept in [0, m) without overflow
+            long t = addMod(b, b - a < 0 ? b - a + modulus : b - a, modulus);
+            long c = Arithmetic.mulMod(a, t, modulus);
+            long d = addMod(Arithmetic.mulMod(a, a, modulus),
+                    Arithmetic.mulMod(b, b, modulus), modulus);
+            if ((n & bit) == 0) {
+                a = c;
+                b = d;
+            } else {
+                a = d;
+                b = addMod(c, d, modulus);
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Returns the n<sup>th</sup> Fibonacci number.
+     * <h2>Time complexity:</h2>
+     * O(log n) multiplications of numbers with O(n) bits.
+     *
+     * @param n The non-negative index.
+     * @return The n<sup>th</sup> Fibonacci number.
+     */
+    public static BigInteger of(final int n) {
+        return pairOf(n)[0];
+    }
+
+    /**
+     * Returns the sum of the even Fibonacci numbers below the given limit.
+     * <h2>Time complexity:</h2>
+     * O(log n), where n is the index of the last term.
+     *
+     * @param limit The exclusive limit.
+     * @return The sum of the even Fibonacci numbers below the limit.
+     */
+    public static long evenSumBelow(final long limit) {
+        if (limit <= 2)
+            return 0;
+        int m = Math.min(estimateIndex(Math.log(limit)), MAX_LONG_INDEX);
+        while (m < MAX_LONG_INDEX && ofAsLong(m + 1) < limit)
+            m++;
+        while (ofAsLong(m) >= limit)
+            m--;
+        // 3n + 2 <= 92, so the numerator cannot overflow
+        int n = m / 3;
+        return (ofAsLong(3 * n + 2) - 1) >>> 1;
+    }
+
+    /**
+     * Returns the sum of the even Fibonacci numbers below the given limit.
+     * <h2>Time complexity:</h2>
+     * O(log n) multiplications of numbers with O(n) bits, where n is the
+     * index of the last term.
+     *
+     * @param limit The exclusive limit.
+     * @return The sum of the even Fibonacci numbers below the limit.
+     */
+    public static BigInteger evenSumBelow(final BigInteger limit) {
+        if (limit.compareTo(BigInteger.valueOf(2)) <= 0)
+            return BigInteger.ZERO;
+        int m = Math.max(estimateIndex(logOf(limit)), 1);
+        BigInteger[] pair = pairOf(m);
+        BigInteger a = pair[0], b = pair[1];
+        // correct the estimate, so that F(m) < limit <= F(m + 1)
+        while (b.compareTo(limit) < 0) {
+            BigInteger c = a.add(b);
+            a = b;
+            b = c;
+            m++;
+        }
+        while (a.compareTo(limit) >= 0) {
+            BigInteger c = b.subtract(a);
+            b = a;
+            a = c;
+            m--;
+        }
+        int n = m / 3;
+        return of(3 * n + 2).subtract(BigInteger.ONE).shiftRight(1);
+    }
+
+    /**
+     * Returns the pair {F(n), F(n + 1)}, by fast doubling.
+     *
+     * @param n The non-negative index.
+     * @return The pair {F(n), F(n + 1)}.
+     */
+    private static BigInteger[] pairOf(final int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("Invalid index : " + n);
+        BigInteger a = BigInteger.ZERO, b = BigInteger.ONE;
+        for (int bit = Integer.highestOneBit(n); bit != 0; bit >>>= 1) {
+            BigInteger c = a.multiply(b.shiftLeft(1).subtract(a));
+            BigInteger d = a.multiply(a).add(b.multiply(b));
+            if ((n & bit) == 0) {
+                a = c;
+                b = d;
+            } else {
+                a = d;
+                b = c.add(d);
+            }
+        }
+        return new BigInteger[]{a, b};
+    }
+
+    /**
+     * Returns an estimate of the index of the largest Fibonacci number
+     * below a limit, given the natural logarithm of the limit.
+     *
+     * @param logLimit The natural logarithm of the limit.
+     * @return The estimated index.
+     */
+    private static int estimateIndex(final double logLimit) {
+        return (int) ((logLimit + LOG_SQRT_5) / LOG_PHI);
+    }
+
+    /**
+     * Returns the natural logarithm of the given positive BigInteger, even
+     * if it is too large for a double.
+     *
+     * @param number The positive number.
+     * @return The natural logarithm of the number.
+     */
+    private static double logOf(final BigInteger number) {
+        int shift = Math.max(number.bitLength() - Long.SIZE, 0);
+        return Math.log(number.shiftRight(shift).doubleValue())
+                + shift * Math.log(2);
+    }
+
+    /**
+     * Returns (a + b) mod m without overflow.
+     *
+     * @param a       The first value, in the range [0, m).
+     * @param b       The second value, in the range [0, m).
+     * @param modulus The positive modulus.
+     * @return (a + b) mod m.
+     */
+    private static long addMod(final long a, final long b,
+                               final long modulus) {
+        long sum = a - (modulus - b);
+        return sum < 0 ? sum + modulus : sum;
+    }
+}
@@ -24,15 +24,21 @@
 
 package ml.cristatus.euler.utils;
 
+import java.math.BigInteger;
+
 /**
  * This is a utility class that provides the functionality of calculating the
  * GCD or Greatest Common Divisor (also known as HCF or Highest Common
  * Factor) of two or more integers.
  * <p>
- * It has only two methods:
+ * It has the following methods:
  * <ol>
  * <li>{@link #of(long, long)}</li>
  * <li>{@link #of(long, long, long...)}</li>
+ * <li>{@link #of(long[])}</li>
+ * <li>{@link #pairwise(long[], long[], long[])}</li>
+ * <li>{@link #of(BigInteger, BigInteger)}</li>
+ * <li>{@link #of(BigInteger...)}</li>
  * </ol>
  * Usage is very simple:
  * <pre><code>
@@ -42,13 +48,40 @@ package ml.cristatus.euler.utils;
  * long gcd2 = GCD.of(a, b, c);
  * long gcd3 = GCD.of(a, b, c, d);
  * long gcd4 = GCD.of(a, b, c, e);
+ * long gcd5 = GCD.of(array);
+ * GCD.pairwise(numerators, denominators, gcds);
  * ...
  * </code></pre>
+ * The batch methods are meant for bulk workloads, like reducing millions of
+ * fractions. They use a branch-free variant of the Binary GCD algorithm, so
+ * that the outcome of the comparisons (which is unpredictable for random
+ * inputs) never stalls the processor.
+ * <p>
+ * The BigInteger methods use Lehmer's algorithm, which performs many steps
+ * of Euclid's algorithm on the leading 62 bits of the numbers alone, and
+ * then applies all of them to the full numbers at once. Above a few
+ * thousand words, a half-GCD recursion is used as well: the leading half of
+ * the numbers is reduced recursively, and the resulting matrix is applied
+ * to the full numbers with fast multiplication.
  *
  * @author Subhomoy Haldar
  * @version 1.0
  */
 public class GCD {
+
+    /**
+     * The number of bits beyond which the BigInteger GCD uses the half-GCD
+     * recursion instead of plain Lehmer steps.
+     */
+    private static final int HALF_GCD_THRESHOLD = 1 << 16;
+
+    /**
+     * The number of extra bits left when the leading half of the numbers
+     * is reduced, so that the quotients found on it remain correct for the
+     * full numbers.
+     */
+    private static final int SLACK = 64;
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -111,9 +144,299 @@ public class GCD {
      */
     public static long of(long a, long b, long... others) {
         long gcd = of(a, b);
-        for (long number : others) {
-            gcd = of(gcd, number);
+        for (int i = 0; i < others.length && gcd != 1; i++) {
+            gcd = of(gcd, others[i]);
+        }
+        return gcd;
+    }
+
+    /**
+     * This method returns the GCD of all the integers in the array, or 0 if
+     * it is empty. It stops as soon as the GCD becomes 1.
+     *
+     * @param numbers The array of positive integers.
+     * @return The GCD of all the integers in the array.
+     */
+    public static long of(long[] numbers) {
+        long gcd = 0;
+        for (int i = 0; i < numbers.length && gcd != 1; i++) {
+            gcd = branchFree(gcd, numbers[i]);
         }
         return gcd;
     }
+
+    /**
+     * This method computes the GCDs of the corresponding elements of two
+     * arrays, i.e. gcds[i] = GCD(a[i], b[i]). The output array may be the
+     * same as one of the input arrays.
+     *
+     * @param a    The first array of positive integers.
+     * @param b    The second array of positive integers.
+     * @param gcds The array to store the GCDs in.
+     */
+    public static void pairwise(long[] a, long[] b, long[] gcds) {
+        if (a.length != b.length || gcds.length < a.length)
+            throw new IllegalArgumentException("Mismatched lengths : "
+                    + a.length + ", " + b.length + ", " + gcds.length);
+        for (int i = 0; i < a.length; i++) {
+            gcds[i] = branchFree(a[i], b[i]);
+        }
+    }
+
+    /**
+     * This method computes the GCD of two integers like
+     * {@link #of(long, long)}, except that the loop does not branch on
+     * which of the two is larger: the smaller one and the absolute
+     * difference are both selected with a sign mask. Both arguments must be
+     * greater than {@link Long#MIN_VALUE}.
+     *
+     * @param a The first integer.
+     * @param b The second integer.
+     * @return The GCD of the two integers.
+     */
+    static long branchFree(long a, long b) {
+        if (a < 0) a = -a;
+        if (b < 0) b = -b;
+        if (a == 0 || b == 0)
+            return a | b;
+        int commonPower = Long.numberOfTrailingZeros(a | b);
+        a >>>= Long.numberOfTrailingZeros(a);
+        // invariant: a is odd
+        while (b != 0) {
+            b >>>= Long.numberOfTrailingZeros(b);
+            long difference = b - a;
+            long mask = difference >> 63;   // -1 if b < a, otherwise 0
+            a += difference & mask;         // min(a, b)
+            b = (difference ^ mask) - mask; // |b - a|
+        }
+        return a << commonPower;
+    }
+
+    /**
+     * This method computes the GCD of two BigIntegers. The signs of the
+     * arguments are ignored, and if one of them is zero, the absolute value
+     * of the other is returned.
+     *
+     * @param a The first integer.
+     * @param b The second integer.
+     * @return The GCD of the two integers.
+     */
+    public static BigInteger of(BigInteger a, BigInteger b) {
+        Reduction reduction = new Reduction(a.abs(), b.abs(), false);
+        while (reduction.b.signum() != 0) {
+            if (reduction.a.bitLength() < 64) {
+                return BigInteger.valueOf(of(reduction.a.longValue(),
+                        reduction.b.longValue()));
+            }
+            step(reduction, 0);
+        }
+        return reduction.a;
+    }
+
+    /**
+     * This method returns the GCD of all the BigIntegers provided, or 0 if
+     * there are none. It stops as soon as the GCD becomes 1.
+     *
+     * @param numbers The integers.
+     * @return The GCD of all the integers provided.
+     */
+    public static BigInteger of(BigInteger... numbers) {
+        BigInteger gcd = BigInteger.ZERO;
+        for (int i = 0; i < numbers.length && !gcd.equals(BigInteger.ONE);
+             i++) {
+            gcd = of(gcd, numbers[i]);
+        }
+        return gcd;
+    }
+
+    /**
+     * Reduces the pair until the smaller number has at most the given
+     * number of bits (or is zero).
+     *
+     * @param reduction The pair to reduce.
+     * @param target    The number of bits to reduce the smaller number to.
+     */
+    private static void reduce(Reduction reduction, int target) {
+        while (reduction.b.signum() != 0
+                && reduction.b.bitLength() > target) {
+            step(reduction, target);
+        }
+    }
+
+    /**
+     * Performs one step of the reduction, which makes some progress
+     * without reducing the smaller number below the target.
+     *
+     * @param reduction The pair to reduce.
+     * @param target    The number of bits to reduce the smaller number to.
+     */
+    private static void step(Reduction reduction, int target) {
+        int n = reduction.a.bitLength();
+        if (n >= HALF_GCD_THRESHOLD
+                && n - reduction.b.bitLength() < SLACK) {
+            // reduce the leading half on its own, to about half its size
+            int shift = n >>> 1, kept = n - shift;
+            Reduction half = new Reduction(reduction.a.shiftRight(shift),
+                    reduction.b.shiftRight(shift), true);
+            reduce(half, Math.max((kept >>> 1) + SLACK, target - shift));
+            if (half.steps > 0 && reduction.apply(half.m00, half.m01,
+                    half.m10, half.m11)) {
+                return;
+            }
+        }
+        lehmerStep(reduction, target);
+    }
+
+    /**
+     * Performs one step of Lehmer's algorithm (Algorithm L in Knuth's
+     * TAOCP, volume 2). The quotients are computed on the leading 62 bits,
+     * and are only accepted while the two bounds on the remainders agree,
+     * so that they are the same as those of the full numbers. If not even
+     * one quotient can be found this way, a full division is done instead.
+     *
+     * @param reduction The pair to reduce.
+     * @param target    The number of bits to reduce the smaller number to.
+     */
+    private static void lehmerStep(Reduction reduction, int target) {
+        int shift = Math.max(reduction.a.bitLength() - 62, 0);
+        long x = reduction.a.shiftRight(shift).longValue();
+        long y = reduction.b.shiftRight(shift).longValue();
+        long a = 1, b = 0, c = 0, d = 1;
+        while (y + c != 0 && y + d != 0
+                && 64 - Long.numberOfLeadingZeros(y) + shift > target) {
+            long q = (x + a) / (y + c);
+            if (q != (x + b) / (y + d))
+                break;
+            long t = a - q * c;
+            a = c;
+            c = t;
+            t = b - q * d;
+            b = d;
+            d = t;
+            t = x - q * y;
+            x = y;
+            y = t;
+        }
+        if (b == 0) {
+            reduction.divide();
+        } else {
+            reduction.apply(BigInteger.valueOf(a), BigInteger.valueOf(b),
+                    BigInteger.valueOf(c), BigInteger.valueOf(d));
+        }
+    }
+
+    /**
+     * A pair of non-negative integers (a, b) with a &ge; b, which is being
+     * reduced by unimodular transformations (that preserve its GCD).
+     * Optionally, the product M of the transformations is tracked, so that
+     * (a, b) = M (a<sub>0</sub>, b<sub>0</sub>) holds for the original pair.
+     */
+    private static final class Reduction {
+
+        private BigInteger a, b;
+        private BigInteger m00, m01, m10, m11;
+        private final boolean tracking;
+        private int steps;
+
+        /**
+         * Creates a new Reduction of the given pair.
+         *
+         * @param a        The first non-negative integer.
+         * @param b        The second non-negative integer.
+         * @param tracking Whether the transformations must be tracked.
+         */
+        private Reduction(BigInteger a, BigInteger b, boolean tracking) {
+            this.tracking = tracking;
+            if (tracking) {
+                m00 = m11 = BigInteger.ONE;
+                m01 = m10 = BigInteger.ZERO;
+            }
+            this.a = a;
+            this.b = b;
+            if (a.compareTo(b) < 0)
+                swap();
+        }
+
+        /**
+         * Replaces (a, b) by (b, a mod b), which is one step of Euclid's
+         * algorithm.
+         */
+        private void divide() {
+            BigInteger[] qr = a.divideAndRemainder(b);
+            a = b;
+            b = qr[1];
+            if (tracking) {
+                BigInteger t = m00.subtract(qr[0].multiply(m10));
+                m00 = m10;
+                m10 = t;
+                t = m01.subtract(qr[0].multiply(m11));
+                m01 = m11;
+                m11 = t;
+            }
+            steps++;
+        }
+
+        /**
+         * Replaces (a, b) by R (a, b) for the given unimodular matrix R,
+         * and fixes the signs and the order of the result. The GCD is
+         * preserved no matter what R is, so the result is only rejected if
+         * it makes no progress.
+         *
+         * @param r00 The top left element of R.
+         * @param r01 The top right element of R.
+         * @param r10 The bottom left element of R.
+         * @param r11 The bottom right element of R.
+         * @return {@code true} if the larger number has been reduced.
+         */
+        private boolean apply(BigInteger r00, BigInteger r01,
+                              BigInteger r10, BigInteger r11) {
+            BigInteger x = r00.multiply(a).add(r01.multiply(b));
+            BigInteger y = r10.multiply(a).add(r11.multiply(b));
+            if (x.signum() < 0) {
+                x = x.negate();
+                r00 = r00.negate();
+                r01 = r01.negate();
+            }
+            if (y.signum() < 0) {
+                y = y.negate();
+                r10 = r10.negate();
+                r11 = r11.negate();
+            }
+            if (x.max(y).compareTo(a) >= 0)
+                return false;
+            a = x;
+            b = y;
+            if (tracking) {
+                BigInteger t00 = r00.multiply(m00).add(r01.multiply(m10));
+                BigInteger t01 = r00.multiply(m01).add(r01.multiply(m11));
+                BigInteger t10 = r10.multiply(m00).add(r11.multiply(m10));
+                BigInteger t11 = r10.multiply(m01).add(r11.multiply(m11));
+                m00 = t00;
+                m01 = t01;
+                m10 = t10;
+                m11 = t11;
+            }
+            if (a.compareTo(b) < 0)
+                swap();
+            steps++;
+            return true;
+        }
+
+        /**
+         * Swaps a and b, along with the rows of M.
+         */
+        private void swap() {
+            BigInteger t = a;
+            a = b;
+            b = t;
+            if (tracking) {
+                t = m00;
+                m00 = m10;
+                m10 = t;
+                t = m01;
+                m01 = m11;
+                m11 = t;
+            }
+        }
+    }
 }
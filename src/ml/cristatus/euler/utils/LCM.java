@@ -0,0 +1,305 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This is a utility class that provides the functionality of calculating the
+ * LCM or Least Common Multiple of two or more integers, with the help of
+ * {@link GCD}.
+ * <p>
+ * Usage is very simple:
+ * <pre><code>
+ * ...
+ * // assuming a, b and c are integers (long, int, etc.)
+ * long lcm1 = LCM.of(a, b);
+ * long lcm2 = LCM.of(a, b, c);
+ * long lcm3 = LCM.of(array);
+ * LCM.pairwise(first, second, lcms);
+ * BigInteger lcm4 = LCM.of(x, y, z);    // BigIntegers
+ * BigInteger lcm5 = LCM.ofRange(lower, upper);
+ * BigInteger lcm6 = LCM.until(n);        // LCM of 1, 2, ..., n
+ * long lcm7 = LCM.until(n, modulus);
+ * ...
+ * </code></pre>
+ * The results are always non-negative, and an {@link ArithmeticException}
+ * is thrown if they overflow a long. The LCMs of many BigIntegers are
+ * reduced in a balanced tree, like a {@link ProductTree}, so that the GCDs
+ * are taken of numbers of about the same size.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class LCM {
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LCM() {
+    }
+
+    /**
+     * This method computes the LCM of two integers as |a| / GCD(a, b) * |b|.
+     * If either of them is zero, zero is returned.
+     *
+     * @param a The first integer.
+     * @param b The second integer.
+     * @return The LCM of the two integers.
+     * @throws ArithmeticException If the LCM overflows a long.
+     */
+    public static long of(long a, long b) {
+        if (a == 0 || b == 0)
+            return 0;
+        a = Math.abs(a);
+        b = Math.abs(b);
+        return Math.multiplyExact(a / GCD.branchFree(a, b), b);
+    }
+
+    /**
+     * This method returns the LCM of all the integers provided.
+     *
+     * @param a      The first integer.
+     * @param b      The second integer.
+     * @param others The other integers.
+     * @return The LCM of all the integers provided.
+     * @throws ArithmeticException If the LCM overflows a long.
+     */
+    public static long of(long a, long b, long... others) {
+        long lcm = of(a, b);
+        for (int i = 0; i < others.length && lcm != 0; i++) {
+            lcm = of(lcm, others[i]);
+        }
+        return lcm;
+    }
+
+    /**
+     * This method returns the LCM of all the integers in the array, or 1 if
+     * it is empty. It stops as soon as the LCM becomes 0.
+     *
+     * @param numbers The array of integers.
+     * @return The LCM of all the integers in the array.
+     * @throws ArithmeticException If the LCM overflows a long.
+     */
+    public static long of(long[] numbers) {
+        long lcm = 1;
+        for (int i = 0; i < numbers.length && lcm != 0; i++) {
+            lcm = of(lcm, numbers[i]);
+        }
+        return lcm;
+    }
+
+    /**
+     * This method computes the LCMs of the corresponding elements of two
+     * arrays, i.e. lcms[i] = LCM(a[i], b[i]). The output array may be the
+     * same as one of the input arrays.
+     *
+     * @param a    The first array of integers.
+     * @param b    The second array of integers.
+     * @param lcms The array to store the LCMs in.
+     * @throws ArithmeticException If any of the LCMs overflows a long.
+     */
+    public static void pairwise(long[] a, long[] b, long[] lcms) {
+        if (a.length != b.length || lcms.length < a.length)
+            throw new IllegalArgumentException("Mismatched lengths : "
+                    + a.length + ", " + b.length + ", " + lcms.length);
+        for (int i = 0; i < a.length; i++) {
+            lcms[i] = of(a[i], b[i]);
+        }
+    }
+
+    /**
+     * This method computes the LCM of two BigIntegers. If either of them
+     * is zero, zero is returned.
+     *
+     * @param a The first integer.
+     * @param b The second integer.
+     * @return The LCM of the two integers.
+     */
+    public static BigInteger of(BigInteger a, BigInteger b) {
+        if (a.signum() == 0 || b.signum() == 0)
+            return BigInteger.ZERO;
+        a = a.abs();
+        b = b.abs();
+        return a.divide(GCD.of(a, b)).multiply(b);
+    }
+
+    /**
+     * This method returns the LCM of all the BigIntegers provided, or 1 if
+     * there are none.
+     *
+     * @param numbers The integers.
+     * @return The LCM of all the integers provided.
+     */
+    public static BigInteger of(BigInteger... numbers) {
+        if (numbers.length == 0)
+            return BigInteger.ONE;
+        return reduce(Arrays.copyOf(numbers, numbers.length),
+                numbers.length);
+    }
+
+    /**
+     * This method returns the LCM of all the integers in the range
+     * [lower, upper), or 1 if the range is empty. Only the integers from
+     * the upper half of [1, upper) are needed, as every smaller one divides
+     * one of them. So if the range covers that half, the LCM is that of 1,
+     * 2, ..., upper - 1, which is found from prime powers by
+     * {@link #until(int)}. Otherwise, consecutive integers are combined
+     * with longs for as long as their LCM fits, and the partial LCMs are
+     * then reduced in a balanced tree.
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     * @return The LCM of all the integers in the range.
+     */
+    public static BigInteger ofRange(long lower, long upper) {
+        if (upper <= lower)
+            return BigInteger.ONE;
+        if (lower <= 0 && 0 < upper)
+            return BigInteger.ZERO;
+        if (upper <= 0) {
+            // the LCM is the same for the absolute values
+            long t = 1 - upper;
+            upper = 1 - lower;
+            lower = t;
+        }
+        // every k < ceil(upper / 2) has a multiple in [ceil(upper / 2),
+        // upper), so the lower half of such a range can be skipped
+        long half = upper - (upper >>> 1);
+        if (lower <= half && upper <= Integer.MAX_VALUE)
+            return until((int) (upper - 1));
+        lower = Math.max(lower, half);
+        BigInteger[] partials = new BigInteger[Math.toIntExact
+                (Math.min(upper - lower, Integer.MAX_VALUE - 8))];
+        int count = 0;
+        long lcm = 1;
+        for (long i = lower; i < upper; i++) {
+            long g = GCD.branchFree(lcm, i);
+            long factor = i / g;
+            if (lcm != 1 && Long.numberOfLeadingZeros(lcm)
+                    + Long.numberOfLeadingZeros(factor) < 65) {
+                partials[count++] = BigInteger.valueOf(lcm);
+                lcm = i;
+            } else {
+                lcm *= factor;
+            }
+        }
+        partials[count++] = BigInteger.valueOf(lcm);
+        return reduce(partials, count);
+    }
+
+    /**
+     * This method returns the LCM of all the integers from 1 to n. It is
+     * the product of the largest power of every prime p &le; n that does
+     * not exceed n, i.e. p<sup>floor(log<sub>p</sub> n)</sup>. The powers
+     * are found with integers alone and multiplied with a
+     * {@link ProductTree}.
+     * <h2>Time complexity:</h2>
+     * O(n log log n) for the sieve, plus O(M(n) log n) for the product.
+     *
+     * @param n The inclusive upper limit.
+     * @return The LCM of all the integers from 1 to n.
+     */
+    public static BigInteger until(int n) {
+        return ProductTree.of(primePowersUntil(n));
+    }
+
+    /**
+     * This method returns the LCM of all the integers from 1 to n, with
+     * the prime powers multiplied in parallel in the given pool.
+     *
+     * @param n    The inclusive upper limit.
+     * @param pool The pool in which the product is to be computed.
+     * @return The LCM of all the integers from 1 to n.
+     */
+    public static BigInteger until(int n, ForkJoinPool pool) {
+        return ProductTree.of(primePowersUntil(n), pool);
+    }
+
+    /**
+     * This method returns the LCM of all the integers from 1 to n, modulo
+     * the given modulus.
+     *
+     * @param n       The inclusive upper limit.
+     * @param modulus The positive modulus.
+     * @return The LCM of all the integers from 1 to n, modulo m.
+     */
+    public static long until(int n, long modulus) {
+        if (modulus < 1)
+            throw new IllegalArgumentException
+                    ("Invalid modulus : " + modulus);
+        long lcm = 1 % modulus;
+        for (long power : primePowersUntil(n)) {
+            lcm = Arithmetic.mulMod(lcm, power % modulus, modulus);
+        }
+        return lcm;
+    }
+
+    /**
+     * Returns the largest power of every prime upto n that does not exceed
+     * n.
+     *
+     * @param n The inclusive upper limit.
+     * @return The largest powers of the primes upto n.
+     */
+    private static long[] primePowersUntil(int n) {
+        if (n < 0)
+            throw new IllegalArgumentException("Invalid limit : " + n);
+        if (n < 2)
+            return new long[0];
+        long[] primes = Primes.getPrimesUntil(n);
+        long root = Arithmetic.isqrt(n);
+        for (int i = 0; i < primes.length && primes[i] <= root; i++) {
+            // p^floor(log_p n), compared with n / p so as not to overflow
+            long prime = primes[i], power = prime;
+            while (power <= n / prime)
+                power *= prime;
+            primes[i] = power;
+        }
+        return primes;
+    }
+
+    /**
+     * Reduces the first few BigIntegers of the given scratch array
+     * pairwise, level by level, until a single LCM remains.
+     *
+     * @param values The scratch array, which is overwritten.
+     * @param length The number of values to reduce.
+     * @return The LCM of the values.
+     */
+    private static BigInteger reduce(final BigInteger[] values, int length) {
+        while (length > 1) {
+            int half = 0;
+            for (int i = 0; i + 1 < length; i += 2) {
+                values[half++] = of(values[i], values[i + 1]);
+            }
+            if ((length & 1) != 0)
+                values[half++] = values[length - 1];
+            length = half;
+        }
+        return values[0];
+    }
+}
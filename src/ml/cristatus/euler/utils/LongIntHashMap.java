@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.util.Arrays;
+
+/**
+ * This is a hash map from primitive longs to primitive ints that uses open
+ * addressing with linear probing. Unlike a {@code HashMap<Long, Integer>},
+ * it neither boxes the keys and values nor allocates an entry object per
+ * mapping, so it is far kinder to the garbage collector when it holds
+ * millions of entries. For example,
+ * <pre><code>
+ *  // ...
+ *  LongIntHashMap map = new LongIntHashMap(expectedSize);
+ *  map.put(someKey, someValue);
+ *  int value = map.get(someKey, -1);  // -1 if absent
+ *  // ...
+ * </code></pre>
+ * The table is kept at most half full, and doubles in size when needed.
+ * Removal is not supported.
+ * <h2>Time complexity:</h2>
+ * O(1) expected per operation.
+ * <h2>Space complexity:</h2>
+ * 24 to 48 bytes per entry.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class LongIntHashMap {
+
+    /**
+     * The largest capacity of the backing arrays.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // the key 0 marks an empty slot, so its mapping is stored separately
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private boolean hasZero;
+    private int zeroValue;
+
+    /**
+     * Creates a new, empty LongIntHashMap that can hold the given number of
+     * entries before it has to grow.
+     *
+     * @param expectedSize The number of entries expected.
+     */
+    public LongIntHashMap(final int expectedSize) {
+        if (expectedSize < 0 || expectedSize > MAX_CAPACITY >>> 1)
+            throw new IllegalArgumentException
+                    ("Invalid expected size : " + expectedSize);
+        int capacity = Math.max(16,
+                Integer.highestOneBit(Math.max(1, expectedSize)) << 2);
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Creates a new, empty LongIntHashMap with a small default capacity.
+     */
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    /**
+     * Returns the number of mappings in this map.
+     *
+     * @return The number of mappings in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if the given key is present in this map.
+     *
+     * @param key The key to look for.
+     * @return {@code true} if the key is present in this map.
+     */
+    public boolean containsKey(final long key) {
+        if (key == 0)
+            return hasZero;
+        for (int i = indexOf(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key)
+                return true;
+            if (keys[i] == 0)
+                return false;
+        }
+    }
+
+    /**
+     * Returns the value mapped to the given key, or the given default if
+     * the key is absent.
+     *
+     * @param key          The key to look for.
+     * @param defaultValue The value to return if the key is absent.
+     * @return The value mapped to the key, or the default.
+     */
+    public int get(final long key, final int defaultValue) {
+        if (key == 0)
+            return hasZero ? zeroValue : defaultValue;
+        for (int i = indexOf(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key)
+                return values[i];
+            if (keys[i] == 0)
+                return defaultValue;
+        }
+    }
+
+    /**
+     * Maps the given key to the given value, replacing any previous value.
+     *
+     * @param key   The key to map.
+     * @param value The value to be mapped to the key.
+     */
+    public void put(final long key, final int value) {
+        if (key == 0) {
+            if (!hasZero)
+                size++;
+            hasZero = true;
+            zeroValue = value;
+            return;
+        }
+        int i = indexOf(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (mask + 1) >>> 1)
+            grow();
+    }
+
+    /**
+     * Removes all the mappings from this map, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    /**
+     * Doubles the capacity of the table and re-inserts all the keys.
+     */
+    private void grow() {
+        if (keys.length == MAX_CAPACITY)
+            throw new IllegalStateException("Map is too large : " + size);
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new int[oldKeys.length << 1];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key == 0)
+                continue;
+            int i = indexOf(key);
+            while (keys[i] != 0)
+                i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = oldValues[j];
+        }
+    }
+
+    /**
+     * Returns the home slot of the given key. The bits are mixed first, so
+     * that keys differing only in their high bits still spread out.
+     *
+     * @param key The key to hash.
+     * @return The home slot of the key.
+     */
+    private int indexOf(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
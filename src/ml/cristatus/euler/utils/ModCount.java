@@ -0,0 +1,304 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+/**
+ * This class counts combinations, permutations and factorials modulo a
+ * prime or a prime power, without ever going through BigIntegers. The
+ * factorials are precomputed once, so that every query afterwards is
+ * answered without any allocation. For example,
+ * <pre><code>
+ *  // ...
+ *  ModCount count = ModCount.forPrime(1_000_000_007, 1_000_000);
+ *  long c = count.combinations(n, r);   // n choose r mod p
+ *  long p = count.permutations(n, r);
+ *  // ...
+ * </code></pre>
+ * There are two kinds of instances:
+ * <ol>
+ * <li>{@link #forPrime(long, int)} builds tables of n! and 1 / n! mod p
+ * upto a limit, so that <sup>n</sup>C<sub>r</sub> and <sup>n</sup>P<sub>r
+ * </sub> take O(1). If the tables cover every residue (the limit is at
+ * least p - 1), arguments of p or more are handled with Lucas's theorem in
+ * O(log<sub>p</sub> n).</li>
+ * <li>{@link #forPrimePower(long, int)} builds a table of the products of
+ * the integers coprime to p modulo p<sup>q</sup>. The factorials are then
+ * split into a power of p and a part coprime to p, which can be inverted.
+ * The latter is reduced recursively with n / p, as in Granville's
+ * generalization of Lucas's theorem, in O(log<sub>p</sub> n).</li>
+ * </ol>
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class ModCount {
+
+    /**
+     * The largest size of the table for a prime power.
+     */
+    public static final int MAX_TABLE_SIZE = 1 << 24;
+
+    private final long prime;
+    private final int exponent;
+    private final long modulus;
+    private final long[] factorials;
+    private final long[] inverseFactorials;
+
+    /**
+     * Creates a new ModCount with the given tables.
+     *
+     * @param prime             The prime.
+     * @param exponent          The exponent of the prime in the modulus.
+     * @param modulus           The modulus.
+     * @param factorials        The table of factorials.
+     * @param inverseFactorials The table of inverse factorials, if any.
+     */
+    private ModCount(final long prime, final int exponent, final long modulus,
+                     final long[] factorials,
+                     final long[] inverseFactorials) {
+        this.prime = prime;
+        this.exponent = exponent;
+        this.modulus = modulus;
+        this.factorials = factorials;
+        this.inverseFactorials = inverseFactorials;
+    }
+
+    /**
+     * Returns a ModCount that works modulo the given prime, with tables
+     * upto the given limit (or p - 1, whichever is smaller).
+     *
+     * @param prime The prime modulus.
+     * @param limit The largest argument expected below p.
+     * @return A ModCount that works modulo the given prime.
+     */
+    public static ModCount forPrime(final long prime, final int limit) {
+        if (prime < 2 || !Primes.isPrime(prime))
+            throw new IllegalArgumentException("Invalid prime : " + prime);
+        if (limit < 0 || limit == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        int size = (int) Math.min(limit + 1L, prime);
+        long[] factorials = new long[size];
+        long[] inverseFactorials = new long[size];
+        factorials[0] = 1;
+        for (int i = 1; i < size; i++) {
+            factorials[i] = Arithmetic.mulMod(factorials[i - 1], i, prime);
+        }
+        // one exponentiation, then 1 / (i - 1)! = i / i!
+        inverseFactorials[size - 1]
+                = Arithmetic.powMod(factorials[size - 1], prime - 2, prime);
+        for (int i = size - 1; i > 0; i--) {
+            inverseFactorials[i - 1]
+                    = Arithmetic.mulMod(inverseFactorials[i], i, prime);
+        }
+        return new ModCount(prime, 1, prime, factorials, inverseFactorials);
+    }
+
+    /**
+     * Returns a ModCount that works modulo the given power of a prime. The
+     * power may not exceed {@link #MAX_TABLE_SIZE}. For an exponent of 1,
+     * this is the same as {@code forPrime(p, p - 1)}.
+     *
+     * @param prime    The prime.
+     * @param exponent The positive exponent of the prime.
+     * @return A ModCount that works modulo p<sup>q</sup>.
+     */
+    public static ModCount forPrimePower(final long prime,
+                                         final int exponent) {
+        if (prime < 2 || !Primes.isPrime(prime))
+            throw new IllegalArgumentException("Invalid prime : " + prime);
+        if (exponent < 1)
+            throw new IllegalArgumentException
+                    ("Invalid exponent : " + exponent);
+        long modulus = 1;
+        for (int i = 0; i < exponent; i++) {
+            if (modulus > MAX_TABLE_SIZE / prime)
+                throw new IllegalArgumentException("Too large a power : "
+                        + prime + "^" + exponent);
+            modulus *= prime;
+        }
+        if (exponent == 1)
+            return forPrime(prime, (int) prime - 1);
+        // the products of the integers in [1, i] that are coprime to p
+        long[] products = new long[(int) modulus];
+        products[0] = 1;
+        for (int i = 1; i < modulus; i++) {
+            products[i] = i % prime == 0
+                    ? products[i - 1]
+                    : products[i - 1] * i % modulus;
+        }
+        return new ModCount(prime, exponent, modulus, products, null);
+    }
+
+    /**
+     * Returns the modulus of this ModCount.
+     *
+     * @return The modulus of this ModCount.
+     */
+    public long getModulus() {
+        return modulus;
+    }
+
+    /**
+     * Returns n! mod m.
+     *
+     * @param n The number whose factorial is sought.
+     * @return n! mod m.
+     */
+    public long factorialOf(final long n) {
+        if (n < 0)
+            throw new IllegalArgumentException("Invalid argument : " + n);
+        if (exponent == 1) {
+            if (n >= prime)
+                return 0;
+            return factorials[index(n)];
+        }
+        long powers = legendre(n);
+        if (powers >= exponent)
+            return 0;
+        return Arithmetic.mulMod(coprimeFactorialOf(n),
+                Arithmetic.powMod(prime, powers, modulus), modulus);
+    }
+
+    /**
+     * Returns the number of combinations of r elements out of n, modulo m.
+     *
+     * @param n The total number of elements.
+     * @param r The number of elements to choose.
+     * @return <sup>n</sup>C<sub>r</sub> mod m.
+     */
+    public long combinations(long n, long r) {
+        if (r < 0 || n < r)
+            throw new IllegalArgumentException
+                    ("Invalid parameter for 'r' : " + r);
+        if (exponent == 1) {
+            if (n < prime)
+                return smallCombinations(n, r);
+            // Lucas: multiply the combinations of the digits in base p
+            long result = 1;
+            while (r > 0) {
+                long nDigit = n % prime, rDigit = r % prime;
+                if (rDigit > nDigit)
+                    return 0;
+                result = Arithmetic.mulMod(result,
+                        smallCombinations(nDigit, rDigit), prime);
+                n /= prime;
+                r /= prime;
+            }
+            return result;
+        }
+        long powers = legendre(n) - legendre(r) - legendre(n - r);
+        if (powers >= exponent)
+            return 0;
+        long result = Arithmetic.mulMod(coprimeFactorialOf(n),
+                Arithmetic.modInverse(Arithmetic.mulMod(coprimeFactorialOf(r),
+                        coprimeFactorialOf(n - r), modulus), modulus),
+                modulus);
+        return Arithmetic.mulMod(result,
+                Arithmetic.powMod(prime, powers, modulus), modulus);
+    }
+
+    /**
+     * Returns the number of permutations of r elements out of n, modulo m.
+     *
+     * @param n The total number of elements.
+     * @param r The number of elements to choose.
+     * @return <sup>n</sup>P<sub>r</sub> mod m.
+     */
+    public long permutations(final long n, final long r) {
+        if (r < 0 || n < r)
+            throw new IllegalArgumentException
+                    ("Invalid parameter for 'r' : " + r);
+        if (exponent == 1 && n < prime) {
+            return Arithmetic.mulMod(factorials[index(n)],
+                    inverseFactorials[index(n - r)], prime);
+        }
+        // nPr = nCr * r!
+        return Arithmetic.mulMod(combinations(n, r), factorialOf(r),
+                modulus);
+    }
+
+    /**
+     * Returns n choose r modulo the prime, from the tables, for n &lt; p.
+     *
+     * @param n The total number of elements.
+     * @param r The number of elements to choose.
+     * @return <sup>n</sup>C<sub>r</sub> mod p.
+     */
+    private long smallCombinations(final long n, final long r) {
+        return Arithmetic.mulMod(factorials[index(n)],
+                Arithmetic.mulMod(inverseFactorials[index(r)],
+                        inverseFactorials[index(n - r)], prime), prime);
+    }
+
+    /**
+     * Returns the index of the given argument in the tables, after checking
+     * that the tables are large enough.
+     *
+     * @param n The argument.
+     * @return The index of the argument in the tables.
+     */
+    private int index(final long n) {
+        if (n >= factorials.length)
+            throw new IllegalArgumentException("Beyond the table of size "
+                    + factorials.length + " : " + n);
+        return (int) n;
+    }
+
+    /**
+     * Returns the exponent of the prime in n!, by Legendre's formula.
+     *
+     * @param n The number whose factorial is considered.
+     * @return The exponent of the prime in n!.
+     */
+    private long legendre(long n) {
+        long count = 0;
+        while (n > 0) {
+            n /= prime;
+            count += n;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the part of n! that is coprime to the prime, modulo
+     * p<sup>q</sup>. The integers coprime to p in [1, n] repeat the table
+     * n / m times and then add a partial run, while the multiples of p
+     * contribute the coprime part of (n / p)!.
+     *
+     * @param n The number whose factorial is considered.
+     * @return The part of n! coprime to p, modulo p<sup>q</sup>.
+     */
+    private long coprimeFactorialOf(long n) {
+        long full = factorials[(int) (modulus - 1)];
+        long result = 1;
+        while (n > 1) {
+            result = Arithmetic.mulMod(result, Arithmetic.mulMod(
+                    Arithmetic.powMod(full, n / modulus, modulus),
+                    factorials[(int) (n % modulus)], modulus), modulus);
+            n /= prime;
+        }
+        return result;
+    }
+}
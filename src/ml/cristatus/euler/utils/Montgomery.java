@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+/**
+ * Performs modular arithmetic for a fixed odd modulus in Montgomery form,
+ * where a residue a is represented by aR mod n with R = 2<sup>64</sup>. A
+ * product then needs only multiplications and a subtraction to be reduced,
+ * instead of a 128-bit division.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+final class Montgomery {
+
+    private final long modulus;
+    private final long inverse;
+    private final long one;
+    private final long rSquared;
+
+    /**
+     * Creates a new Montgomery context for the given modulus.
+     *
+     * @param modulus An odd modulus greater than 1 (and less than 2^63).
+     */
+    Montgomery(final long modulus) {
+        if (modulus < 3 || (modulus & 1) == 0)
+            throw new IllegalArgumentException("Invalid modulus : " + modulus);
+        this.modulus = modulus;
+        // Newton's iteration doubles the number of correct bits every time
+        long inverse = modulus;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - modulus * inverse;
+        }
+        this.inverse = inverse;
+        // R mod n, since -n is 2^64 - n when treated as unsigned
+        one = Long.remainderUnsigned(-modulus, modulus);
+        long r = one;
+        for (int i = 0; i < 64; i++) {
+            r <<= 1;
+            if (Long.compareUnsigned(r, modulus) >= 0)
+                r -= modulus;
+        }
+        rSquared = r;
+    }
+
+    /**
+     * Returns the Montgomery form of 1.
+     *
+     * @return R mod n.
+     */
+    long one() {
+        return one;
+    }
+
+    /**
+     * Converts the given residue into Montgomery form.
+     *
+     * @param a The residue, in the range [0, n).
+     * @return aR mod n.
+     */
+    long toMontgomery(final long a) {
+        return multiply(a, rSquared);
+    }
+
+    /**
+     * Converts the given value from Montgomery form back to a residue.
+     *
+     * @param a The value in Montgomery form.
+     * @return aR<sup>-1</sup> mod n.
+     */
+    long fromMontgomery(final long a) {
+        return reduce(0, a);
+    }
+
+    /**
+     * Returns the Montgomery product of two values in Montgomery form.
+     *
+     * @param a The first value in Montgomery form.
+     * @param b The second value in Montgomery form.
+     * @return abR<sup>-1</sup> mod n.
+     */
+    long multiply(final long a, final long b) {
+        return reduce(Arithmetic.unsignedMultiplyHigh(a, b), a * b);
+    }
+
+    /**
+     * Raises a value in Montgomery form to the given power.
+     *
+     * @param base     The base in Montgomery form.
+     * @param exponent The non-negative exponent.
+     * @return The power in Montgomery form.
+     */
+    long pow(long base, long exponent) {
+        long result = one;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1)
+                result = multiply(result, base);
+            base = multiply(base, base);
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns TR<sup>-1</sup> mod n for T = high &middot; 2<sup>64</sup> +
+     * low, where T &lt; nR.
+     *
+     * @param high The high 64 bits of T.
+     * @param low  The low 64 bits of T.
+     * @return TR<sup>-1</sup> mod n.
+     */
+    private long reduce(final long high, final long low) {
+        // m * n matches T in the low 64 bits, so T - m * n is exactly
+        // divisible by R and lies in the range (-nR, nR)
+        long m = low * inverse;
+        long t = high - Arithmetic.unsignedMultiplyHigh(m, modulus);
+        return t < 0 ? t + modulus : t;
+    }
+}
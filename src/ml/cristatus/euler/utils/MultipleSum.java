@@ -0,0 +1,274 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * This class adds up (or counts) the positive integers below a limit that
+ * are multiples of at least one of a given set of divisors, by the
+ * principle of inclusion and exclusion. For example,
+ * <pre><code>
+ *  // ...
+ *  MultipleSum sum = new MultipleSum(3, 5);
+ *  BigInteger total = sum.sumBelow(1000);                 // 233168
+ *  long modular = sum.sumBelow(1_000_000_000_000_000_000L, modulus);
+ *  // ...
+ * </code></pre>
+ * Every subset of the divisors contributes the sum of the multiples of its
+ * LCM, with a sign that alternates with the size of the subset. The
+ * subsets are walked depth-first, and a branch is pruned as soon as its
+ * LCM reaches the limit, since it has no multiples below it (and neither
+ * has any larger subset). Duplicate divisors, and those that are multiples
+ * of another divisor, are removed up front, since they add no multiples of
+ * their own.
+ * <p>
+ * The sum of the multiples of m below a limit L is m &middot; n (n + 1) / 2
+ * with n = (L - 1) / m, which needs up to 128 bits for limits upto
+ * 10<sup>18</sup>. So the terms are accumulated in a pair of longs, which
+ * wraps around exactly like a 128-bit integer, and the (much smaller)
+ * total is exact in the end.
+ * <h2>Time complexity:</h2>
+ * O(s), where s is the number of subsets whose LCM is below the limit,
+ * which is at most 2<sup>k</sup> for k divisors.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class MultipleSum {
+
+    private final long[] divisors;
+
+    /**
+     * The i<sup>th</sup> mask has the j<sup>th</sup> bit set if the i<sup>th
+     * </sup> and j<sup>th</sup> divisors have a common factor, for the first
+     * 64 divisors.
+     */
+    private final long[] sharing;
+
+    /**
+     * Creates a new MultipleSum for the given positive divisors.
+     *
+     * @param divisors The positive divisors.
+     */
+    public MultipleSum(final long... divisors) {
+        long[] sorted = divisors.clone();
+        Arrays.sort(sorted);
+        if (sorted.length > 0 && sorted[0] < 1)
+            throw new IllegalArgumentException
+                    ("Invalid divisor : " + sorted[0]);
+        long[] reduced = new long[sorted.length];
+        int count = 0;
+        outer:
+        for (long divisor : sorted) {
+            for (int i = 0; i < count; i++) {
+                if (divisor % reduced[i] == 0)
+                    continue outer;
+            }
+            reduced[count++] = divisor;
+        }
+        this.divisors = Arrays.copyOf(reduced, count);
+        this.sharing = new long[count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < Math.min(count, Long.SIZE); j++) {
+                if (GCD.of(reduced[i], reduced[j]) > 1)
+                    sharing[i] |= 1L << j;
+            }
+        }
+    }
+
+    /**
+     * Returns the divisors that are left after removing the redundant ones,
+     * in ascending order.
+     *
+     * @return The divisors that are left after removing the redundant ones.
+     */
+    public long[] getDivisors() {
+        return divisors.clone();
+    }
+
+    /**
+     * Returns the number of positive integers below the limit that are
+     * multiples of at least one of the divisors.
+     *
+     * @param limit The exclusive limit.
+     * @return The number of such multiples below the limit.
+     */
+    public long countBelow(final long limit) {
+        long[] count = new long[1];
+        walk(limit, (lcm, odd) -> {
+            long n = (limit - 1) / lcm;
+            count[0] += odd ? n : -n;
+        });
+        return count[0];
+    }
+
+    /**
+     * Returns the sum of the positive integers below the limit that are
+     * multiples of at least one of the divisors.
+     *
+     * @param limit The exclusive limit.
+     * @return The sum of such multiples below the limit.
+     */
+    public BigInteger sumBelow(final long limit) {
+        // the 128-bit sum as {high, low}
+        long[] sum = new long[2];
+        walk(limit, (lcm, odd) -> {
+            long n = (limit - 1) / lcm;
+            // m n (n + 1) / 2, where m n < limit fits in a long, and one of
+            // m n and n + 1 is even whenever n is
+            long x = lcm * n, y = n + 1;
+            if ((y & 1) == 0)
+                y >>>= 1;
+            else
+                x >>>= 1;
+            long high = Arithmetic.multiplyHigh(x, y), low = x * y;
+            if (!odd) {
+                // negate the 128-bit value
+                high = ~high + (low == 0 ? 1 : 0);
+                low = -low;
+            }
+            long total = sum[1] + low;
+            sum[0] += high + (Long.compareUnsigned(total, low) < 0 ? 1 : 0);
+            sum[1] = total;
+        });
+        BigInteger low = BigInteger.valueOf(sum[1] & Long.MAX_VALUE);
+        if (sum[1] < 0)
+            low = low.setBit(63);
+        return BigInteger.valueOf(sum[0]).shiftLeft(64).add(low);
+    }
+
+    /**
+     * Returns the sum of the positive integers below the limit that are
+     * multiples of at least one of the divisors, modulo the given modulus.
+     *
+     * @param limit   The exclusive limit.
+     * @param modulus The positive modulus.
+     * @return The sum of such multiples below the limit, modulo m.
+     */
+    public long sumBelow(final long limit, final long modulus) {
+        if (modulus < 1)
+            throw new IllegalArgumentException
+                    ("Invalid modulus : " + modulus);
+        long[] sum = new long[1];
+        walk(limit, (lcm, odd) -> {
+            long n = (limit - 1) / lcm;
+            long x = lcm * n, y = n + 1;
+            if ((y & 1) == 0)
+                y >>>= 1;
+            else
+                x >>>= 1;
+            long term = Arithmetic.mulMod(x % modulus, y % modulus, modulus);
+            long total = odd ? sum[0] - (modulus - term) : sum[0] - term;
+            // keep the sum in [0, m)
+            sum[0] = total < 0 ? total + modulus : total;
+        });
+        return sum[0];
+    }
+
+    /**
+     * Visits every non-empty subset of the divisors whose LCM is below the
+     * limit.
+     *
+     * @param limit   The exclusive limit.
+     * @param visitor The visitor of the subsets.
+     */
+    private void walk(final long limit, final SubsetVisitor visitor) {
+        if (limit < 1)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        // the largest LCM that each divisor can extend without reaching the
+        // limit, if it has no common factor with the LCM
+        long[] bounds = new long[divisors.length];
+        for (int i = 0; i < divisors.length; i++) {
+            bounds[i] = (limit - 1) / divisors[i];
+        }
+        walk(0, 1, 0, true, limit, bounds, visitor);
+    }
+
+    /**
+     * Visits the subsets which extend the current one with the divisors
+     * from the given index onwards.
+     * <p>
+     * A divisor which is coprime to every divisor in the current subset
+     * multiplies the LCM by itself. Since the divisors are sorted, once one
+     * of them is pruned, so are all the larger ones that are coprime to the
+     * subset, and only those that share a factor with it (and need a GCD)
+     * are left to check. For a set of primes, the loop simply stops there.
+     *
+     * @param from    The index of the first divisor that may be added.
+     * @param lcm     The LCM of the current subset.
+     * @param shared  The mask of the divisors that share a factor with the
+     *                current subset.
+     * @param odd     Whether the extended subsets have an odd size.
+     * @param limit   The exclusive limit.
+     * @param bounds  The bounds on the LCM for the coprime divisors.
+     * @param visitor The visitor of the subsets.
+     */
+    private void walk(final int from, final long lcm, final long shared,
+                      final boolean odd, final long limit,
+                      final long[] bounds, final SubsetVisitor visitor) {
+        boolean pruned = false;
+        for (int i = from; i < divisors.length; i++) {
+            boolean coprime = i < Long.SIZE && (shared & 1L << i) == 0;
+            if (coprime && pruned) {
+                // nothing is left but the coprime ones, which are pruned
+                if (divisors.length <= Long.SIZE && shared >>> i == 0)
+                    break;
+                continue;
+            }
+            long divisor = divisors[i], next;
+            if (coprime) {
+                if (lcm > bounds[i]) {
+                    pruned = true;
+                    continue;
+                }
+                next = lcm * divisor;
+            } else {
+                long factor = divisor / GCD.of(lcm % divisor, divisor);
+                if (lcm > (limit - 1) / factor)
+                    continue;
+                next = lcm * factor;
+            }
+            visitor.visit(next, odd);
+            walk(i + 1, next, shared | sharing[i], !odd, limit, bounds,
+                    visitor);
+        }
+    }
+
+    /**
+     * A visitor of the subsets of the divisors.
+     */
+    @FunctionalInterface
+    private interface SubsetVisitor {
+        /**
+         * Visits a subset of the divisors.
+         *
+         * @param lcm The LCM of the subset.
+         * @param odd Whether the subset has an odd number of divisors.
+         */
+        void visit(long lcm, boolean odd);
+    }
+}
@@ -25,7 +25,9 @@
 package ml.cristatus.euler.utils;
 
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.math.BigInteger.ONE;
 
@@ -34,6 +36,24 @@ import static java.math.BigInteger.ONE;
  * product of all the (Big)Integers from a given lower limit (inclusive) to a
  * given upper limit (exclusive). This is useful in calculating the factorial
  * of numbers, or the number of combinations and permutations.
+ * <p>
+ * By default, the chunks are multiplied with a {@link ProductTree}, which
+ * packs consecutive factors into longs and multiplies them in a balanced
+ * tree. The plain left fold over BigIntegers can still be selected with
+ * {@link Strategy#LEFT_FOLD}.
+ * <p>
+ * A range is split only while the estimated size of its product (in bits)
+ * is large enough to be worth a separate task. The size of the chunks also
+ * depends on the parallelism of the pool, so that there are a few chunks
+ * for every worker and no more. The pool can be chosen by the caller:
+ * <pre><code>
+ * ...
+ * BigInteger product1 = ParallelMultiplier.product(lower, upper);
+ * BigInteger product2 = ParallelMultiplier.product(lower, upper, pool);
+ * ...
+ * </code></pre>
+ * The number of tasks, chunks and steals of a computation can be read from
+ * {@link #getStatistics()} of the task that was invoked.
  *
  * @author Subhomoy Haldar
  * @version 1.0
@@ -41,23 +61,131 @@ import static java.math.BigInteger.ONE;
 public class ParallelMultiplier extends RecursiveTask<BigInteger> {
 
     /**
-     * The threshold beyond which recursion and multithreading starts.
+     * The estimated size of a product (in bits) below which a range is
+     * never split, since the overhead of a task would outweigh the work.
      */
-    private static final BigInteger THRESHOLD = BigInteger.valueOf(10_000);
+    private static final long MIN_CHUNK_BITS = 1L << 16;
+
+    /**
+     * The number of chunks aimed at for every worker of the pool, which
+     * leaves some slack for the workers to balance the load by stealing.
+     */
+    private static final int CHUNKS_PER_WORKER = 8;
 
     private final BigInteger upper;
     private final BigInteger lower;
+    private final Strategy strategy;
+    private final long chunkBits;
+    private final Statistics statistics;
+    private Thread forker;
 
     /**
-     * Creates a new instance of ParallelMultiplier with the desired limits.
+     * Creates a new instance of ParallelMultiplier with the desired limits,
+     * which multiplies the chunks with a product tree in the common pool.
      *
      * @param lowerLimit The inclusive lower limit.
      * @param upperLimit The exclusive upper limit.
      */
     public ParallelMultiplier(final BigInteger lowerLimit,
                               final BigInteger upperLimit) {
+        this(lowerLimit, upperLimit, Strategy.PRODUCT_TREE);
+    }
+
+    /**
+     * Creates a new instance of ParallelMultiplier with the desired limits,
+     * which multiplies the chunks with the given strategy in the common
+     * pool.
+     *
+     * @param lowerLimit The inclusive lower limit.
+     * @param upperLimit The exclusive upper limit.
+     * @param strategy   The way in which each chunk is multiplied.
+     */
+    public ParallelMultiplier(final BigInteger lowerLimit,
+                              final BigInteger upperLimit,
+                              final Strategy strategy) {
+        this(lowerLimit, upperLimit, strategy,
+                ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Creates a new instance of ParallelMultiplier with the desired limits,
+     * which multiplies the chunks with the given strategy, and is to be
+     * invoked in a pool of the given parallelism.
+     *
+     * @param lowerLimit  The inclusive lower limit.
+     * @param upperLimit  The exclusive upper limit.
+     * @param strategy    The way in which each chunk is multiplied.
+     * @param parallelism The parallelism of the pool to be used.
+     */
+    public ParallelMultiplier(final BigInteger lowerLimit,
+                              final BigInteger upperLimit,
+                              final Strategy strategy,
+                              final int parallelism) {
+        this(lowerLimit, upperLimit, strategy,
+                Math.max(MIN_CHUNK_BITS, estimateBits(lowerLimit, upperLimit)
+                        / ((long) Math.max(parallelism, 1)
+                        * CHUNKS_PER_WORKER)),
+                new Statistics());
+    }
+
+    /**
+     * Creates a new instance of ParallelMultiplier for a part of the range.
+     *
+     * @param lowerLimit The inclusive lower limit.
+     * @param upperLimit The exclusive upper limit.
+     * @param strategy   The way in which each chunk is multiplied.
+     * @param chunkBits  The estimated size of a product that is not split.
+     * @param statistics The statistics shared by the whole computation.
+     */
+    private ParallelMultiplier(final BigInteger lowerLimit,
+                               final BigInteger upperLimit,
+                               final Strategy strategy,
+                               final long chunkBits,
+                               final Statistics statistics) {
         upper = upperLimit;
         lower = lowerLimit;
+        this.strategy = strategy;
+        this.chunkBits = chunkBits;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Returns the product of all the integers in the range [lower, upper),
+     * computed in the common pool.
+     *
+     * @param lowerLimit The inclusive lower limit.
+     * @param upperLimit The exclusive upper limit.
+     * @return The product of all the integers in the range.
+     */
+    public static BigInteger product(final BigInteger lowerLimit,
+                                     final BigInteger upperLimit) {
+        return product(lowerLimit, upperLimit, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns the product of all the integers in the range [lower, upper),
+     * computed in the given pool.
+     *
+     * @param lowerLimit The inclusive lower limit.
+     * @param upperLimit The exclusive upper limit.
+     * @param pool       The pool in which the tasks are to be run.
+     * @return The product of all the integers in the range.
+     */
+    public static BigInteger product(final BigInteger lowerLimit,
+                                     final BigInteger upperLimit,
+                                     final ForkJoinPool pool) {
+        return pool.invoke(new ParallelMultiplier(lowerLimit, upperLimit,
+                Strategy.PRODUCT_TREE, pool.getParallelism()));
+    }
+
+    /**
+     * Returns the statistics of the computation that this task is a part
+     * of. They are complete once the task is done.
+     *
+     * @return The statistics of the computation.
+     */
+    public Statistics getStatistics() {
+        return statistics;
     }
 
     /**
@@ -67,21 +195,151 @@ public class ParallelMultiplier extends RecursiveTask<BigInteger> {
      */
     @Override
     protected BigInteger compute() {
-        if (upper.subtract(lower).compareTo(THRESHOLD) <= 0) {
-            // perform sequential multiplication
-            BigInteger product = ONE;
-            for (BigInteger i = lower; i.compareTo(upper) < 0; i = i.add(ONE))
-                product = product.multiply(i);
-            return product;
+        statistics.tasks.increment();
+        if (forker != null && forker != Thread.currentThread())
+            statistics.steals.increment();
+        if (upper.subtract(lower).compareTo(ONE) <= 0
+                || estimateBits(lower, upper) <= chunkBits) {
+            statistics.chunks.increment();
+            return strategy == Strategy.LEFT_FOLD
+                    ? leftFold()
+                    : productTree();
         }
         BigInteger mid = upper.add(lower).shiftRight(1);
 
-        ParallelMultiplier multiplier1 = new ParallelMultiplier(lower, mid);
-        ParallelMultiplier multiplier2 = new ParallelMultiplier(mid, upper);
+        ParallelMultiplier multiplier1 = new ParallelMultiplier
+                (lower, mid, strategy, chunkBits, statistics);
+        ParallelMultiplier multiplier2 = new ParallelMultiplier
+                (mid, upper, strategy, chunkBits, statistics);
 
+        multiplier1.forker = Thread.currentThread();
         multiplier1.fork(); // On a (hopefully) separate thread
 
         // combine and return result
         return multiplier2.compute().multiply(multiplier1.join());
     }
+
+    /**
+     * Returns an estimate of the number of bits in the product of all the
+     * integers in the range [lower, upper). It is an upper bound for
+     * positive ranges.
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     * @return The estimated number of bits in the product.
+     */
+    private static long estimateBits(final BigInteger lower,
+                                     final BigInteger upper) {
+        BigInteger width = upper.subtract(lower);
+        if (width.signum() <= 0)
+            return 0;
+        int bits = Math.max(upper.abs().bitLength(), lower.abs().bitLength());
+        return width.bitLength() < 32
+                ? width.longValue() * bits
+                : Long.MAX_VALUE;
+    }
+
+    /**
+     * Multiplies the chunk sequentially, one BigInteger at a time.
+     *
+     * @return The product of the chunk.
+     */
+    private BigInteger leftFold() {
+        BigInteger product = ONE;
+        for (BigInteger i = lower; i.compareTo(upper) < 0; i = i.add(ONE))
+            product = product.multiply(i);
+        return product;
+    }
+
+    /**
+     * Multiplies the chunk with a product tree. The limits are counted with
+     * longs whenever they fit in one.
+     *
+     * @return The product of the chunk.
+     */
+    private BigInteger productTree() {
+        if (lower.bitLength() < 64 && upper.bitLength() < 64)
+            return ProductTree.ofRange(lower.longValue(), upper.longValue());
+        int length = Math.max(upper.subtract(lower).intValue(), 0);
+        BigInteger[] factors = new BigInteger[length];
+        BigInteger factor = lower;
+        for (int i = 0; i < length; i++) {
+            factors[i] = factor;
+            factor = factor.add(ONE);
+        }
+        return ProductTree.of(factors);
+    }
+
+    /**
+     * The ways in which a chunk of the range can be multiplied.
+     */
+    public enum Strategy {
+        /**
+         * Multiplies the running product by one BigInteger at a time.
+         */
+        LEFT_FOLD,
+        /**
+         * Packs the factors into longs and multiplies them in a balanced
+         * {@link ProductTree}.
+         */
+        PRODUCT_TREE
+    }
+
+    /**
+     * The counts of the tasks run by a computation, which help in tuning
+     * the pool that it runs in. They are updated concurrently by all the
+     * tasks of the computation.
+     */
+    public static final class Statistics {
+
+        private final LongAdder tasks = new LongAdder();
+        private final LongAdder chunks = new LongAdder();
+        private final LongAdder steals = new LongAdder();
+
+        /**
+         * Private constructor, since only the root task creates these.
+         */
+        private Statistics() {
+        }
+
+        /**
+         * Returns the number of tasks that have been run.
+         *
+         * @return The number of tasks that have been run.
+         */
+        public long getTaskCount() {
+            return tasks.sum();
+        }
+
+        /**
+         * Returns the number of chunks that have been multiplied
+         * sequentially, i.e. the tasks that were not split any further.
+         *
+         * @return The number of chunks that have been multiplied.
+         */
+        public long getChunkCount() {
+            return chunks.sum();
+        }
+
+        /**
+         * Returns the number of forked tasks that were run by a thread
+         * other than the one that forked them, i.e. stolen.
+         *
+         * @return The number of tasks that were stolen.
+         */
+        public long getStealCount() {
+            return steals.sum();
+        }
+
+        /**
+         * Returns a short summary of the counts.
+         *
+         * @return A short summary of the counts.
+         */
+        @Override
+        public String toString() {
+            return "tasks = " + getTaskCount() + ", chunks = "
+                    + getChunkCount() + ", steals = " + getStealCount();
+        }
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToLongFunction;
+
+/**
+ * Utility class that uses recursion and multi-threading to sift a range of
+ * integers for primes. The range is split into chunks, each of which is
+ * sifted by a {@link SegmentedSieve} on a separate worker of a
+ * {@link ForkJoinPool}. All the workers share the same read-only base primes,
+ * and the per-chunk counts or sums are combined as the recursion unwinds, so
+ * that the workers never contend with each other.
+ * <p>
+ * Usage is very simple:
+ * <pre><code>
+ * ...
+ * long count = ParallelSieve.count(lower, upper);
+ * long sum = ParallelSieve.sum(lower, upper);
+ * long prime = ParallelSieve.nth(n);
+ * ...
+ * </code></pre>
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class ParallelSieve extends RecursiveTask<Long> {
+
+    /**
+     * The width of the range beyond which recursion and multithreading
+     * starts. It spans 32 blocks of the segmented sieve.
+     */
+    private static final long THRESHOLD = 1L << 24;
+
+    private final long lower;
+    private final long upper;
+    private final int[] basePrimes;
+    private final ToLongFunction<SegmentedSieve> operation;
+
+    /**
+     * Creates a new instance of ParallelSieve that applies the operation to
+     * every chunk of the range and adds up the results.
+     *
+     * @param lower      The inclusive lower limit.
+     * @param upper      The exclusive upper limit.
+     * @param basePrimes The shared odd base primes.
+     * @param operation  The operation to perform on each chunk.
+     */
+    private ParallelSieve(final long lower, final long upper,
+                          final int[] basePrimes,
+                          final ToLongFunction<SegmentedSieve> operation) {
+        this.lower = lower;
+        this.upper = upper;
+        this.basePrimes = basePrimes;
+        this.operation = operation;
+    }
+
+    /**
+     * Returns the number of primes in the range [lower, upper).
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     * @return The number of primes in the range.
+     */
+    public static long count(final long lower, final long upper) {
+        return ForkJoinPool.commonPool().invoke(new ParallelSieve(lower, upper,
+                SegmentedSieve.basePrimesFor(upper), SegmentedSieve::count));
+    }
+
+    /**
+     * Returns the sum of the primes in the range [lower, upper).
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     * @return The sum of the primes in the range.
+     * @throws ArithmeticException If the sum overflows a long.
+     */
+    public static long sum(final long lower, final long upper) {
+        return ForkJoinPool.commonPool().invoke(new ParallelSieve(lower, upper,
+                SegmentedSieve.basePrimesFor(upper), SegmentedSieve::sum));
+    }
+
+    /**
+     * Returns the n<sup>th</sup> prime, counting from 1. The primes in the
+     * chunks below an upper bound are counted in parallel, a few chunks at a
+     * time, after which only the chunk which contains the required prime is
+     * sifted once more. The chunks submitted beyond it are cancelled.
+     *
+     * @param n The rank of the required prime.
+     * @return The n<sup>th</sup> prime.
+     */
+    public static long nth(final long n) {
+        if (n < 1)
+            throw new IllegalArgumentException("Invalid rank : " + n);
+        // p(n) < n(log n + log log n) for n >= 6 (Rosser's theorem)
+        long bound = n < 6 ? 12
+                : (long) (n * (Math.log(n) + Math.log(Math.log(n)))) + 1;
+        int[] basePrimes = SegmentedSieve.basePrimesFor(bound);
+
+        // submit only a few chunks ahead of the one being joined, so that
+        // little work is left behind in the common pool once it is found
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int window = 2 * pool.getParallelism();
+        Deque<ParallelSieve> chunks = new ArrayDeque<>();
+        long low = 0, remaining = n;
+        while (true) {
+            for (; chunks.size() < window && low < bound; low += THRESHOLD) {
+                ParallelSieve chunk = new ParallelSieve(low,
+                        Math.min(bound, low + THRESHOLD),
+                        basePrimes, SegmentedSieve::count);
+                pool.execute(chunk);
+                chunks.add(chunk);
+            }
+            ParallelSieve chunk = chunks.poll();
+            if (chunk == null)
+                break;
+            long count = chunk.join();
+            if (count >= remaining) {
+                // the chunks beyond this one are not needed anymore
+                for (ParallelSieve pending : chunks) {
+                    pending.cancel(false);
+                }
+                return new SegmentedSieve(chunk.lower, chunk.upper, basePrimes)
+                        .nth(remaining);
+            }
+            remaining -= count;
+        }
+        // If the execution control reaches this point, then the bound must
+        // have been wrong.
+        throw new InternalError("Upper bound exceeded for n = " + n);
+    }
+
+    /**
+     * Returns the result of the operation over the whole range.
+     *
+     * @return The result of the operation over the whole range.
+     */
+    @Override
+    protected Long compute() {
+        if (upper - lower <= THRESHOLD) {
+            return operation.applyAsLong
+                    (new SegmentedSieve(lower, upper, basePrimes));
+        }
+        long mid = lower + ((upper - lower) >>> 1);
+
+        ParallelSieve sieve1
+                = new ParallelSieve(lower, mid, basePrimes, operation);
+        ParallelSieve sieve2
+                = new ParallelSieve(mid, upper, basePrimes, operation);
+
+        sieve1.fork(); // On a (hopefully) separate thread
+
+        // combine and return result
+        return Math.addExact(sieve2.compute(), sieve1.join());
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * This is a compact alternative to the boolean array returned by
+ * {@link Primes#siftUntil(int)}. It stores one bit per odd number, which is
+ * sixteen times smaller than a byte per integer. A sieve upto 2&middot;10<sup>9
+ * </sup> therefore fits in about 125 MB. For example,
+ * <pre><code>
+ *  // ...
+ *  PrimeBitmap bitmap = new PrimeBitmap(someLimit);
+ *  if (bitmap.isPrime(yourNumber))
+ *      // ... do operations with the prime number
+ *  long count = bitmap.count(lower, upper);
+ *  // ...
+ * </code></pre>
+ * The bitmap is filled block by block in the same way as a
+ * {@link SegmentedSieve}, so the crossing-off remains cache-friendly.
+ * <p>
+ * <h2>Time complexity:</h2>
+ * O(n log log n) for construction.
+ * <h2>Space complexity:</h2>
+ * n / 16 bytes.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class PrimeBitmap {
+
+    /**
+     * The largest (inclusive) limit supported. It keeps the number of bits
+     * within the bounds of an int.
+     */
+    public static final long MAX_LIMIT = 2L * Integer.MAX_VALUE - 1;
+
+    private final long limit;
+    private final int size;
+    private final long[] bits;
+
+    /**
+     * Creates a new PrimeBitmap for all the numbers upto the given inclusive
+     * limit.
+     *
+     * @param limit The inclusive upper limit.
+     */
+    public PrimeBitmap(final long limit) {
+        if (limit < 0 || limit > MAX_LIMIT)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        this.limit = limit;
+        // the bit at index i represents the odd number 2i + 1
+        size = (int) ((limit + 1) >>> 1);
+        bits = new long[(size + 63) >>> 6];
+        if (size == 0)
+            return;
+        Arrays.fill(bits, -1L);
+
+        int[] primes = SegmentedSieve.basePrimesFor(limit + 1);
+        long[] next = new long[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            long prime = primes[i];
+            next[i] = (prime * prime) >>> 1;
+        }
+        // advance by the length of the block, since from + SEGMENT_LENGTH
+        // would overflow an int in the last block when size is near 2^31
+        for (int from = 0, length; from < size; from += length) {
+            length = Math.min(SegmentedSieve.SEGMENT_LENGTH, size - from);
+            SegmentedSieve.crossOff(bits, from, length, primes, next);
+        }
+        bits[0] &= ~1L;     // 1 is not prime
+        if ((size & 63) != 0)
+            bits[bits.length - 1] &= (1L << size) - 1;
+    }
+
+    /**
+     * Returns the inclusive limit upto which this bitmap holds the primes.
+     *
+     * @return The inclusive limit of this bitmap.
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns {@code true} if the given number is prime.
+     *
+     * @param number The number whose primality is to be determined.
+     * @return {@code true} if the number is prime.
+     */
+    public boolean isPrime(final long number) {
+        checkBounds(number);
+        if (number < 3) return number == 2;
+        if ((number & 1) == 0) return false;
+        int index = (int) (number >>> 1);
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the smallest prime that is greater than the given number.
+     *
+     * @param number The number to start searching after.
+     * @return The smallest prime greater than the number.
+     * @throws NoSuchElementException If there is no such prime within the
+     *                                limit of this bitmap.
+     */
+    public long nextPrime(final long number) {
+        long prime = -1;
+        if (number < 2) {
+            if (limit >= 2)
+                prime = 2;
+        } else if (number < limit) {
+            int index = nextSetBit((int) ((number + 1) >>> 1));
+            if (index >= 0)
+                prime = 2L * index + 1;
+        }
+        if (prime < 0)
+            throw new NoSuchElementException
+                    ("No prime after " + number + " upto " + limit);
+        return prime;
+    }
+
+    /**
+     * Returns the largest prime that is less than the given number.
+     *
+     * @param number The number to start searching before.
+     * @return The largest prime less than the number.
+     * @throws NoSuchElementException If the number is 2 or less.
+     */
+    public long prevPrime(final long number) {
+        if (number <= 2)
+            throw new NoSuchElementException("No prime less than " + number);
+        checkBounds(number - 1);
+        int index = previousSetBit((int) (number >>> 1) - 1);
+        return index < 0 ? 2 : 2L * index + 1;
+    }
+
+    /**
+     * Returns the number of primes in the range [lower, upper).
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     * @return The number of primes in the range.
+     */
+    public long count(final long lower, final long upper) {
+        if (upper <= lower)
+            return 0;
+        checkBounds(lower);
+        checkBounds(upper - 1);
+        long count = lower <= 2 && 2 < upper ? 1 : 0;
+        int from = (int) (lower >>> 1);
+        int to = (int) (upper >>> 1);
+        if (from >= to)
+            return count;
+        int first = from >>> 6, last = (to - 1) >>> 6;
+        long mask = -1L << from;
+        for (int i = first; i <= last; i++) {
+            if (i == last)
+                mask &= -1L >>> (63 - ((to - 1) & 63));
+            count += Long.bitCount(bits[i] & mask);
+            mask = -1L;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the primes in the range [lower, upper).
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     * @return The sum of the primes in the range.
+     * @throws ArithmeticException If the sum overflows a long.
+     */
+    public long sum(final long lower, final long upper) {
+        if (upper <= lower)
+            return 0;
+        checkBounds(lower);
+        checkBounds(upper - 1);
+        long sum = lower <= 2 && 2 < upper ? 2 : 0;
+        int to = (int) (upper >>> 1);
+        for (int i = nextSetBit((int) (lower >>> 1));
+             i >= 0 && i < to; i = nextSetBit(i + 1)) {
+            sum = Math.addExact(sum, 2L * i + 1);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the n<sup>th</sup> prime, counting from 1.
+     *
+     * @param n The rank of the required prime.
+     * @return The n<sup>th</sup> prime.
+     * @throws NoSuchElementException If there are fewer than n primes within
+     *                                the limit of this bitmap.
+     */
+    public long nth(final long n) {
+        if (n < 1)
+            throw new IllegalArgumentException("Invalid rank : " + n);
+        if (limit < 2)
+            throw new NoSuchElementException("No primes upto " + limit);
+        if (n == 1)
+            return 2;
+        long remaining = n - 1;
+        for (int i = 0; i < bits.length; i++) {
+            int count = Long.bitCount(bits[i]);
+            if (count < remaining) {
+                remaining -= count;
+                continue;
+            }
+            // the required prime lies in this word
+            long word = bits[i];
+            while (--remaining > 0)
+                word &= word - 1;
+            return 2L * ((i << 6) + Long.numberOfTrailingZeros(word)) + 1;
+        }
+        throw new NoSuchElementException
+                ("Fewer than " + n + " primes upto " + limit);
+    }
+
+    /**
+     * Returns an array of all the primes in this bitmap, in ascending order.
+     *
+     * @return An array of all the primes upto the limit.
+     */
+    public long[] toArray() {
+        if (limit < 2)
+            return new long[0];
+        long[] primes = new long[(int) count(0, limit + 1)];
+        primes[0] = 2;
+        int index = 1;
+        for (int i = 0; i < bits.length; i++) {
+            for (long word = bits[i]; word != 0; word &= word - 1) {
+                int bit = (i << 6) + Long.numberOfTrailingZeros(word);
+                primes[index++] = 2L * bit + 1;
+            }
+        }
+        return primes;
+    }
+
+    /**
+     * Returns the index of the first set bit at or after the given index,
+     * or -1 if there is none.
+     *
+     * @param from The index to start the search from.
+     * @return The index of the next set bit or -1.
+     */
+    private int nextSetBit(final int from) {
+        if (from >= size)
+            return -1;
+        int i = from >>> 6;
+        long word = bits[i] & (-1L << from);
+        while (word == 0) {
+            if (++i == bits.length)
+                return -1;
+            word = bits[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the index of the last set bit at or before the given index,
+     * or -1 if there is none.
+     *
+     * @param from The index to start the search from.
+     * @return The index of the previous set bit or -1.
+     */
+    private int previousSetBit(final int from) {
+        if (from < 0)
+            return -1;
+        int i = from >>> 6;
+        long word = bits[i] & (-1L >>> (63 - (from & 63)));
+        while (word == 0) {
+            if (i-- == 0)
+                return -1;
+            word = bits[i];
+        }
+        return (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    /**
+     * Complains if the given number lies outside this bitmap.
+     *
+     * @param number The number to check.
+     */
+    private void checkBounds(final long number) {
+        if (number < 0 || number > limit)
+            throw new IllegalArgumentException
+                    ("Outside the bitmap [0, " + limit + "] : " + number);
+    }
+}
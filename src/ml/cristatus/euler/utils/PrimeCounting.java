@@ -0,0 +1,321 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.math.BigInteger;
+
+/**
+ * This is a utility class that counts and adds up the primes upto a limit
+ * in sublinear time, without sifting the entire range. It uses the dynamic
+ * programming algorithm popularized by Lucy_Hedgehog on Project Euler.
+ * <p>
+ * Let S(v, p) be the count (or sum) of the integers in [2, v] that are
+ * either prime or have no prime factor less than or equal to p. Then, for
+ * every prime p, S(v, p) = S(v, p - 1) - f(p) [S(v / p, p - 1) - S(p - 1,
+ * p - 1)], where f(p) is 1 for counting and p for summing. Only the values
+ * v = n / i are ever needed, of which there are about 2&radic;n.
+ * <p>
+ * Usage is very simple:
+ * <pre><code>
+ * ...
+ * long count = PrimeCounting.countUntil(n);
+ * BigInteger sum = PrimeCounting.sumUntil(n);
+ * long residue = PrimeCounting.sumUntil(n, modulus);
+ * ...
+ * </code></pre>
+ * <h2>Time complexity:</h2>
+ * O(n<sup>3/4</sup>)
+ * <h2>Space complexity:</h2>
+ * O(&radic;n)
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class PrimeCounting {
+
+    /**
+     * The largest limit supported for counting, and for summing modulo a
+     * given modulus. Its square root, 10<sup>8</sup>, fits in an int, and
+     * the two tables of that size take about 1.6 GB.
+     */
+    public static final long MAX_LIMIT = 10_000_000_000_000_000L;
+
+    /**
+     * The largest limit for which {@link #sumUntil(long)} is exact.
+     */
+    public static final long MAX_EXACT_SUM_LIMIT = 1L << 47;
+
+    /**
+     * The Mersenne prime 2<sup>31</sup> - 1, which allows the products to
+     * fit in a long and to be reduced without a division.
+     */
+    private static final long MERSENNE = (1L << 31) - 1;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PrimeCounting() {
+    }
+
+    /**
+     * Returns the number of primes less than or equal to n, i.e. &pi;(n).
+     *
+     * @param n The inclusive upper limit.
+     * @return The number of primes upto n.
+     */
+    public static long countUntil(final long n) {
+        if (n < 2)
+            return 0;
+        checkLimit(n, MAX_LIMIT);
+        final int root = (int) Arithmetic.isqrt(n);
+        // small[v] = S(v) for v <= root, large[i] = S(n / i) for i <= root
+        long[] small = new long[root + 1];
+        long[] large = new long[root + 1];
+        for (int v = 1; v <= root; v++) {
+            small[v] = v - 1;
+            large[v] = n / v - 1;
+        }
+        for (long p : Primes.getPrimesUntil(root)) {
+            long previous = small[(int) p - 1];
+            int prime = (int) p;
+            long square = p * p;
+            int end = (int) Math.min(root, n / square);
+            for (int i = 1; i <= end; i++) {
+                long d = (long) i * prime;
+                long quotient = d <= root
+                        ? large[(int) d]
+                        : small[(int) (n / d)];
+                large[i] -= quotient - previous;
+            }
+            for (int v = root; v >= square; v--) {
+                small[v] -= small[v / prime] - previous;
+            }
+        }
+        return large[1];
+    }
+
+    /**
+     * Returns the exact sum of the primes less than or equal to n.
+     * <p>
+     * The sum is computed modulo 2<sup>64</sup> (by simply letting the
+     * longs overflow) and modulo 2<sup>31</sup> - 1 in the same pass, and
+     * the residues are combined with the Chinese Remainder Theorem. Since the
+     * sum is less than n<sup>2</sup> / 2, the result is exact as long as n
+     * does not exceed {@link #MAX_EXACT_SUM_LIMIT}.
+     *
+     * @param n The inclusive upper limit.
+     * @return The sum of the primes upto n.
+     */
+    public static BigInteger sumUntil(final long n) {
+        if (n < 2)
+            return BigInteger.ZERO;
+        checkLimit(n, MAX_EXACT_SUM_LIMIT);
+        final int root = (int) Arithmetic.isqrt(n);
+        long[] small = new long[root + 1], smallMod = new long[root + 1];
+        long[] large = new long[root + 1], largeMod = new long[root + 1];
+        for (int v = 1; v <= root; v++) {
+            small[v] = triangle(v) - 1;
+            smallMod[v] = triangleMod(v);
+            large[v] = triangle(n / v) - 1;
+            largeMod[v] = triangleMod(n / v);
+        }
+        for (long p : Primes.getPrimesUntil(root)) {
+            long previous = small[(int) p - 1];
+            long previousMod = smallMod[(int) p - 1];
+            int prime = (int) p;
+            long square = p * p;
+            int end = (int) Math.min(root, n / square);
+            for (int i = 1; i <= end; i++) {
+                long d = (long) i * prime;
+                long quotient, quotientMod;
+                if (d <= root) {
+                    quotient = large[(int) d];
+                    quotientMod = largeMod[(int) d];
+                } else {
+                    int index = (int) (n / d);
+                    quotient = small[index];
+                    quotientMod = smallMod[index];
+                }
+                large[i] -= p * (quotient - previous);
+                largeMod[i] = subtractMod(largeMod[i],
+                        p * subtractMod(quotientMod, previousMod));
+            }
+            for (int v = root; v >= square; v--) {
+                int index = v / prime;
+                small[v] -= p * (small[index] - previous);
+                smallMod[v] = subtractMod(smallMod[v],
+                        p * subtractMod(smallMod[index], previousMod));
+            }
+        }
+        return combine(large[1], largeMod[1]);
+    }
+
+    /**
+     * Returns the sum of the primes less than or equal to n, modulo the
+     * given modulus.
+     *
+     * @param n       The inclusive upper limit.
+     * @param modulus The positive modulus.
+     * @return The sum of the primes upto n modulo the modulus.
+     */
+    public static long sumUntil(final long n, final long modulus) {
+        if (modulus < 1)
+            throw new IllegalArgumentException
+                    ("Invalid modulus : " + modulus);
+        if (n < 2)
+            return 0;
+        checkLimit(n, MAX_LIMIT);
+        final int root = (int) Arithmetic.isqrt(n);
+        long[] small = new long[root + 1];
+        long[] large = new long[root + 1];
+        for (int v = 1; v <= root; v++) {
+            small[v] = triangle(v, modulus);
+            large[v] = triangle(n / v, modulus);
+        }
+        for (long p : Primes.getPrimesUntil(root)) {
+            long previous = small[(int) p - 1];
+            long weight = p % modulus;
+            int prime = (int) p;
+            long square = p * p;
+            int end = (int) Math.min(root, n / square);
+            for (int i = 1; i <= end; i++) {
+                long d = (long) i * prime;
+                long quotient = d <= root
+                        ? large[(int) d]
+                        : small[(int) (n / d)];
+                large[i] = Math.floorMod(large[i] - Arithmetic.mulMod(weight,
+                        Math.floorMod(quotient - previous, modulus), modulus),
+                        modulus);
+            }
+            for (int v = root; v >= square; v--) {
+                small[v] = Math.floorMod(small[v] - Arithmetic.mulMod(weight,
+                        Math.floorMod(small[v / prime] - previous, modulus),
+                        modulus), modulus);
+            }
+        }
+        return large[1];
+    }
+
+    /**
+     * Complains if the limit is larger than the given maximum.
+     *
+     * @param n       The limit.
+     * @param maximum The maximum limit allowed.
+     */
+    private static void checkLimit(final long n, final long maximum) {
+        if (n > maximum)
+            throw new IllegalArgumentException("Limit is too large : " + n);
+    }
+
+    /**
+     * Returns v(v + 1) / 2 modulo 2<sup>64</sup>, halving the even factor
+     * before multiplying so that nothing but the overflow is lost.
+     *
+     * @param v The non-negative value.
+     * @return v(v + 1) / 2 modulo 2<sup>64</sup>.
+     */
+    private static long triangle(final long v) {
+        return (v & 1) == 0 ? (v >>> 1) * (v + 1) : v * ((v + 1) >>> 1);
+    }
+
+    /**
+     * Returns v(v + 1) / 2 - 1 modulo the Mersenne prime.
+     *
+     * @param v The positive value.
+     * @return v(v + 1) / 2 - 1 modulo 2<sup>31</sup> - 1.
+     */
+    private static long triangleMod(final long v) {
+        long a = v, b = v + 1;
+        if ((a & 1) == 0)
+            a >>>= 1;
+        else
+            b >>>= 1;
+        long product = reduceMod((a % MERSENNE) * (b % MERSENNE));
+        return subtractMod(product, 1);
+    }
+
+    /**
+     * Returns v(v + 1) / 2 - 1 modulo the given modulus.
+     *
+     * @param v       The positive value.
+     * @param modulus The positive modulus.
+     * @return v(v + 1) / 2 - 1 modulo the modulus.
+     */
+    private static long triangle(final long v, final long modulus) {
+        long a = v, b = v + 1;
+        if ((a & 1) == 0)
+            a >>>= 1;
+        else
+            b >>>= 1;
+        long product = Arithmetic.mulMod(a % modulus, b % modulus, modulus);
+        return Math.floorMod(product - 1, modulus);
+    }
+
+    /**
+     * Reduces a product of two residues modulo the Mersenne prime, using
+     * the fact that 2<sup>31</sup> = 1 (mod 2<sup>31</sup> - 1).
+     *
+     * @param product The non-negative product, less than 2<sup>62</sup>.
+     * @return The product modulo 2<sup>31</sup> - 1.
+     */
+    private static long reduceMod(long product) {
+        product = (product & MERSENNE) + (product >>> 31);
+        product = (product & MERSENNE) + (product >>> 31);
+        return product >= MERSENNE ? product - MERSENNE : product;
+    }
+
+    /**
+     * Returns (a - b) modulo the Mersenne prime, where b may be any product
+     * of two residues.
+     *
+     * @param a The minuend, a residue.
+     * @param b The subtrahend, less than 2<sup>62</sup>.
+     * @return (a - b) modulo 2<sup>31</sup> - 1.
+     */
+    private static long subtractMod(final long a, final long b) {
+        long difference = a - reduceMod(b);
+        return difference < 0 ? difference + MERSENNE : difference;
+    }
+
+    /**
+     * Combines the residues of a non-negative number modulo 2<sup>64</sup>
+     * and modulo 2<sup>31</sup> - 1 into the number itself.
+     *
+     * @param wrapped The residue modulo 2<sup>64</sup>.
+     * @param reduced The residue modulo 2<sup>31</sup> - 1.
+     * @return The number, assuming it is less than the product of moduli.
+     */
+    private static BigInteger combine(final long wrapped, final long reduced) {
+        // the number is wrapped + 2^64 k, where 2^64 k = reduced - wrapped
+        // (mod M), and 2^64 = 4 (mod M) whose inverse is 2^29
+        long difference = subtractMod(reduced,
+                Long.remainderUnsigned(wrapped, MERSENNE));
+        long k = reduceMod(difference << 29);
+        BigInteger low = BigInteger.valueOf(wrapped & Long.MAX_VALUE);
+        if (wrapped < 0)
+            low = low.setBit(63);
+        return BigInteger.valueOf(k).shiftLeft(64).add(low);
+    }
+}
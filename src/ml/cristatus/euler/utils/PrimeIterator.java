@@ -0,0 +1,149 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This is a lazy, unbounded source of primes in ascending order. It sifts
+ * the integers one block at a time, in the same way as a
+ * {@link SegmentedSieve}, but only when the primes of the previous block
+ * have been consumed. The base primes are extended as well whenever the
+ * blocks outgrow them. Therefore, one pays only for the primes that are
+ * actually read. For example,
+ * <pre><code>
+ *  // ...
+ *  PrimeIterator iterator = new PrimeIterator();
+ *  while (...) {
+ *      long prime = iterator.nextLong();
+ *      // ... do operations with the prime number
+ *  }
+ *  // ...
+ * </code></pre>
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ * @see Primes#stream()
+ */
+public class PrimeIterator implements PrimitiveIterator.OfLong {
+
+    /**
+     * The limit upto which the initial base primes suffice.
+     */
+    private static final long INITIAL_COVERAGE = 1L << 24;
+
+    private final long[] bits = new long[SegmentedSieve.SEGMENT_LENGTH >>> 6];
+    private boolean pendingTwo;
+    private long low;
+    private int wordIndex;
+    private long word;
+
+    private long coverage;
+    private int[] basePrimes;
+    private long[] next;
+
+    /**
+     * Creates a new PrimeIterator that starts at 2.
+     */
+    public PrimeIterator() {
+        this(0);
+    }
+
+    /**
+     * Creates a new PrimeIterator that starts at the smallest prime which
+     * is greater than or equal to the given number.
+     *
+     * @param from The number to start from.
+     */
+    public PrimeIterator(final long from) {
+        if (from < 0 || from >= SegmentedSieve.MAX_LIMIT)
+            throw new IllegalArgumentException("Invalid start : " + from);
+        pendingTwo = from <= 2;
+        long first = Math.max(from, 3) | 1;
+        coverage = Math.max(INITIAL_COVERAGE, first);
+        basePrimes = SegmentedSieve.basePrimesFor(coverage);
+        next = SegmentedSieve.offsets(basePrimes, first);
+        low = first;
+        sift();
+    }
+
+    /**
+     * Returns {@code true} until the supported range of the sieve has been
+     * exhausted, which is practically always.
+     *
+     * @return {@code true} if there are more primes.
+     */
+    @Override
+    public boolean hasNext() {
+        return pendingTwo || low < SegmentedSieve.MAX_LIMIT;
+    }
+
+    /**
+     * Returns the next prime.
+     *
+     * @return The next prime.
+     */
+    @Override
+    public long nextLong() {
+        if (pendingTwo) {
+            pendingTwo = false;
+            return 2;
+        }
+        while (word == 0) {
+            if (++wordIndex == bits.length) {
+                low += 2L * SegmentedSieve.SEGMENT_LENGTH;
+                if (low >= SegmentedSieve.MAX_LIMIT)
+                    throw new NoSuchElementException("Sieve limit reached.");
+                sift();
+            } else {
+                word = bits[wordIndex];
+            }
+        }
+        int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+        return low + 2L * index;
+    }
+
+    /**
+     * Sifts the block that starts at the current lower limit, extending the
+     * base primes first if necessary.
+     */
+    private void sift() {
+        long upper = low + 2L * SegmentedSieve.SEGMENT_LENGTH;
+        if (upper > coverage) {
+            // grow geometrically to amortize the cost of the base primes
+            coverage = Math.min(SegmentedSieve.MAX_LIMIT,
+                    Math.max(upper, coverage << 2));
+            basePrimes = SegmentedSieve.basePrimesFor(coverage);
+            next = SegmentedSieve.offsets(basePrimes, low);
+        }
+        Arrays.fill(bits, -1L);
+        SegmentedSieve.crossOff(bits, 0, bits.length << 6, basePrimes, next);
+        wordIndex = 0;
+        word = bits[0];
+    }
+}
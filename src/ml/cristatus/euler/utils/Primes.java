@@ -25,6 +25,10 @@
 package ml.cristatus.euler.utils;
 
 import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * This is a utility class that contains methods related to prime numbers.
@@ -34,12 +38,120 @@ import java.util.Arrays;
  */
 public class Primes {
 
+    /**
+     * The primes used for trial division before the Miller-Rabin test.
+     */
+    private static final int[] SMALL_PRIMES
+            = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53};
+
+    /**
+     * The bases for which the Miller-Rabin test is deterministic for every
+     * number less than 2<sup>32</sup>.
+     */
+    private static final long[] INT_BASES = {2, 7, 61};
+
+    /**
+     * The bases for which the Miller-Rabin test is deterministic for every
+     * number less than 2<sup>64</sup> (found by Jim Sinclair).
+     */
+    private static final long[] LONG_BASES
+            = {2, 325, 9375, 28178, 450775, 9780504, 1795265022};
+
+    /**
+     * The largest number whose square does not overflow a long.
+     */
+    private static final long MAX_SQUARE_ROOT = 3_037_000_499L;
+
     /**
      * Private constructor to prevent instantiation.
      */
     private Primes() {
     }
 
+    /**
+     * Determines whether the given number is prime, using a deterministic
+     * variant of the Miller-Rabin test.
+     * <p>
+     * Small factors are weeded out by trial division first. Numbers that
+     * are small enough to be squared without overflow are then tested with
+     * the bases 2, 7 and 61 in plain modular arithmetic. Larger numbers are
+     * tested with a set of 7 bases that is known to be sufficient for every
+     * 64-bit integer, using Montgomery multiplication to avoid overflow.
+     * <p>
+     * <h2>Time complexity:</h2>
+     * O(log n), with a small constant.
+     * <h2>Space complexity:</h2>
+     * O(1)
+     *
+     * @param number The number whose primality is to be determined.
+     * @return {@code true} if the number is prime.
+     */
+    public static boolean isPrime(final long number) {
+        if (number < 2) return false;   // 0, 1 and (-)ves
+        for (int prime : SMALL_PRIMES) {
+            if (number % prime == 0)
+                return number == prime;
+        }
+        if (number < 59 * 59)
+            return true;
+
+        long d = number - 1;
+        int s = Long.numberOfTrailingZeros(d);
+        d >>= s;
+
+        if (number <= MAX_SQUARE_ROOT) {
+            for (long base : INT_BASES) {
+                if (!isStrongProbablePrime(number, base, d, s))
+                    return false;
+            }
+            return true;
+        }
+
+        Montgomery montgomery = new Montgomery(number);
+        long one = montgomery.one();
+        long minusOne = number - one;
+        outer:
+        for (long base : LONG_BASES) {
+            base %= number;
+            if (base == 0)
+                continue;
+            long x = montgomery.pow(montgomery.toMontgomery(base), d);
+            if (x == one || x == minusOne)
+                continue;
+            for (int i = 1; i < s; i++) {
+                x = montgomery.multiply(x, x);
+                if (x == minusOne)
+                    continue outer;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Performs a single round of the Miller-Rabin test in plain modular
+     * arithmetic, where number - 1 = d &times; 2<sup>s</sup>.
+     *
+     * @param number The odd number to test, whose square must fit in a long.
+     * @param base   The base to test with.
+     * @param d      The odd part of number - 1.
+     * @param s      The power of 2 in number - 1.
+     * @return {@code true} if the number is a strong probable prime.
+     */
+    private static boolean isStrongProbablePrime(final long number,
+                                                 final long base,
+                                                 final long d, final int s) {
+        long x = Arithmetic.powMod(base % number, d, number);
+        if (x == 1 || x == number - 1)
+            return true;
+        for (int i = 1; i < s; i++) {
+            x = x * x % number;
+            if (x == number - 1)
+                return true;
+        }
+        return false;
+    }
+
     /**
      * Returns a boolean array that is essentially a sieve. In order to check
      * if a number is prime, check if the boolean at that index is true. For
@@ -78,26 +190,113 @@ public class Primes {
     /**
      * Returns an array of primes upto the given inclusive limit.
      * <p>
+     * The primes are read off a {@link PrimeBitmap}, which needs only one
+     * bit per odd number, so the array can be allocated with the exact size.
+     * <p>
      * <h2>Time complexity:</h2>
      * O(n log log n)
      * <h2>Space complexity:</h2>
-     * O(n)
+     * O(n), but only n / 16 bytes for the sieve itself.
      *
      * @param limit The inclusive upper limit.
      * @return An array of primes upto the given inclusive limit.
      */
     public static long[] getPrimesUntil(final int limit) {
-        boolean[] isPrime = siftUntil(limit);
-        int count = 0;
-        for (int i = 2; i <= limit; i++) {
-            if (isPrime[i])
-                count++;
-        }
-        long[] primes = new long[count];
-        for (int i = 2, index = 0; i <= limit; i++) {
-            if (isPrime[i])
-                primes[index++] = i;
+        return getPrimesUntil(limit, Strategy.ODD_BITMAP);
+    }
+
+    /**
+     * Returns an array of primes upto the given inclusive limit, which are
+     * generated by the desired kind of sieve.
+     * <p>
+     * <h2>Time complexity:</h2>
+     * O(n log log n)
+     * <h2>Space complexity:</h2>
+     * O(n)
+     *
+     * @param limit    The inclusive upper limit.
+     * @param strategy The kind of sieve to use.
+     * @return An array of primes upto the given inclusive limit.
+     */
+    public static long[] getPrimesUntil(final int limit,
+                                        final Strategy strategy) {
+        switch (strategy) {
+            case PLAIN:
+                boolean[] isPrime = siftUntil(limit);
+                int count = 0;
+                for (int i = 2; i <= limit; i++) {
+                    if (isPrime[i])
+                        count++;
+                }
+                long[] primes = new long[count];
+                for (int i = 2, index = 0; i <= limit; i++) {
+                    if (isPrime[i])
+                        primes[index++] = i;
+                }
+                return primes;
+            case ODD_BITMAP:
+                return new PrimeBitmap(limit).toArray();
+            case WHEEL_30:
+                return new WheelSieve(limit).toArray();
+            default:
+                throw new IllegalArgumentException
+                        ("Unknown strategy : " + strategy);
         }
-        return primes;
+    }
+
+    /**
+     * Returns an array of primes in the range [lower, upper). Unlike
+     * {@link #getPrimesUntil(int)}, the limits are allowed to be well past
+     * {@link Integer#MAX_VALUE}.
+     * <p>
+     * <h2>Time complexity:</h2>
+     * O(n log log n)
+     * <h2>Space complexity:</h2>
+     * O(&radic;n), excluding the primes that are returned.
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     * @return An array of primes in the given range.
+     * @see SegmentedSieve
+     */
+    public static long[] getPrimesBetween(final long lower, final long upper) {
+        return new SegmentedSieve(lower, upper).toArray();
+    }
+
+    /**
+     * Returns an unbounded, sequential stream of all the primes in ascending
+     * order. The primes are sifted lazily by a {@link PrimeIterator}, block
+     * by block, as the stream is consumed. For example,
+     * <pre><code>
+     *  // ...
+     *  long nthPrime = Primes.stream().skip(n - 1).findFirst().getAsLong();
+     *  // ...
+     * </code></pre>
+     *
+     * @return An unbounded stream of primes.
+     */
+    public static LongStream stream() {
+        return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(
+                new PrimeIterator(), Spliterator.ORDERED | Spliterator.SORTED
+                        | Spliterator.DISTINCT | Spliterator.NONNULL
+                        | Spliterator.IMMUTABLE), false);
+    }
+
+    /**
+     * The kinds of sieves that can be used to generate the primes.
+     */
+    public enum Strategy {
+        /**
+         * The sieve of {@link #siftUntil(int)}, with one boolean per integer.
+         */
+        PLAIN,
+        /**
+         * The {@link PrimeBitmap}, with one bit per odd integer.
+         */
+        ODD_BITMAP,
+        /**
+         * The {@link WheelSieve}, with one bit per integer coprime to 30.
+         */
+        WHEEL_30
     }
 }
@@ -0,0 +1,284 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static java.math.BigInteger.ONE;
+import static java.math.BigInteger.ZERO;
+
+/**
+ * This is a utility class that multiplies many integers together using a
+ * balanced binary product tree. Consecutive small factors are first packed
+ * into a single long for as long as their product fits, and the packed
+ * partial products are then multiplied pairwise, level by level. As a
+ * result, every multiplication is done on operands of about the same size,
+ * which is where the Karatsuba and Toom-Cook algorithms used by
+ * {@link BigInteger#multiply(BigInteger)} pay off. A left fold, in contrast,
+ * multiplies an ever growing product by a tiny factor at every step.
+ * <p>
+ * Usage is very simple:
+ * <pre><code>
+ * ...
+ * BigInteger product = ProductTree.of(factors);
+ * BigInteger factorial = ProductTree.ofRange(1, n + 1);
+ * BigInteger parallel = ProductTree.of(factors, ForkJoinPool.commonPool());
+ * ...
+ * </code></pre>
+ * <h2>Time complexity:</h2>
+ * O(M(n) log n), where M(n) is the cost of multiplying two numbers as large
+ * as half the product.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class ProductTree {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ProductTree() {
+    }
+
+    /**
+     * Returns the product of the given positive factors.
+     *
+     * @param factors The positive factors to multiply.
+     * @return The product of the factors.
+     */
+    public static BigInteger of(final long... factors) {
+        if (factors.length == 0)
+            return ONE;
+        long[] packed = new long[factors.length];
+        int count = pack(factors, packed);
+        return multiply(packed, 0, count);
+    }
+
+    /**
+     * Returns the product of the given positive factors, with the subtrees
+     * multiplied in parallel in the given pool.
+     *
+     * @param factors The positive factors to multiply.
+     * @param pool    The pool in which the subtrees are to be multiplied.
+     * @return The product of the factors.
+     */
+    public static BigInteger of(final long[] factors,
+                                final ForkJoinPool pool) {
+        if (factors.length == 0)
+            return ONE;
+        long[] packed = new long[factors.length];
+        int count = pack(factors, packed);
+        return pool.invoke(new Multiplication(packed, 0, count));
+    }
+
+    /**
+     * Returns the product of all the integers in the range [lower, upper),
+     * or 1 if the range is empty.
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     * @return The product of all the integers in the range.
+     */
+    public static BigInteger ofRange(final long lower, final long upper) {
+        if (upper <= lower)
+            return ONE;
+        if (lower <= 0 && 0 < upper)
+            return ZERO;
+        if (upper <= 0) {
+            // the product of [lower, upper) is the product of
+            // [1 - upper, 1 - lower) with the sign of (-1)^(upper - lower)
+            BigInteger product = ofRange(1 - upper, 1 - lower);
+            return ((upper - lower) & 1) == 0 ? product : product.negate();
+        }
+        // every packed long holds at least 63 / L factors of L bits
+        int perLong = 63 / (64 - Long.numberOfLeadingZeros(upper - 1));
+        long[] packed = new long[Math.toIntExact
+                ((upper - lower + perLong - 1) / perLong)];
+        int count = 0;
+        long product = 1;
+        for (long factor = lower; factor < upper; factor++) {
+            if (product != 1 && !fits(product, factor)) {
+                packed[count++] = product;
+                product = 1;
+            }
+            product *= factor;
+        }
+        packed[count++] = product;
+        return multiply(packed, 0, count);
+    }
+
+    /**
+     * Returns the product of the given factors.
+     *
+     * @param factors The factors to multiply.
+     * @return The product of the factors.
+     */
+    public static BigInteger of(final BigInteger... factors) {
+        if (factors.length == 0)
+            return ONE;
+        return multiply(Arrays.copyOf(factors, factors.length),
+                factors.length);
+    }
+
+    /**
+     * Packs the consecutive positive factors into longs for as long as
+     * their product fits.
+     *
+     * @param factors The positive factors to pack.
+     * @param packed  The array to store the packed products in.
+     * @return The number of packed products.
+     */
+    private static int pack(final long[] factors, final long[] packed) {
+        int count = 0;
+        long product = 1;
+        for (long factor : factors) {
+            if (factor < 1)
+                throw new IllegalArgumentException
+                        ("Invalid factor : " + factor);
+            if (product != 1 && !fits(product, factor)) {
+                packed[count++] = product;
+                product = 1;
+            }
+            product *= factor;
+        }
+        packed[count++] = product;
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if the product of the two positive numbers is
+     * guaranteed to fit in a long. The check is done on the bit lengths, so
+     * that it costs no division.
+     *
+     * @param a The first positive number.
+     * @param b The second positive number.
+     * @return {@code true} if a * b does not overflow.
+     */
+    private static boolean fits(final long a, final long b) {
+        return Long.numberOfLeadingZeros(a)
+                + Long.numberOfLeadingZeros(b) >= 65;
+    }
+
+    /**
+     * Returns the product of the longs in the range [from, to) of the given
+     * array, splitting it in halves.
+     *
+     * @param packed The array of packed products.
+     * @param from   The inclusive starting index.
+     * @param to     The exclusive ending index.
+     * @return The product of the longs in the range.
+     */
+    private static BigInteger multiply(final long[] packed,
+                                       final int from, final int to) {
+        int length = to - from;
+        if (length == 1)
+            return BigInteger.valueOf(packed[from]);
+        if (length == 2)
+            return BigInteger.valueOf(packed[from])
+                    .multiply(BigInteger.valueOf(packed[from + 1]));
+        int mid = (from + to) >>> 1;
+        return multiply(packed, from, mid).multiply(multiply(packed, mid, to));
+    }
+
+    /**
+     * Multiplies the first few BigIntegers of the given scratch array
+     * pairwise, level by level, until a single product remains.
+     *
+     * @param values The scratch array, which is overwritten.
+     * @param length The number of values to multiply.
+     * @return The product of the values.
+     */
+    private static BigInteger multiply(final BigInteger[] values,
+                                       int length) {
+        while (length > 1) {
+            int half = 0;
+            for (int i = 0; i + 1 < length; i += 2) {
+                values[half++] = values[i].multiply(values[i + 1]);
+            }
+            if ((length & 1) != 0)
+                values[half++] = values[length - 1];
+            length = half;
+        }
+        return values[0];
+    }
+
+    /**
+     * The multiplication of a range of packed products, which forks the
+     * two halves of large ranges.
+     */
+    private static final class Multiplication
+            extends RecursiveTask<BigInteger> {
+
+        /**
+         * The number of packed products beyond which the halves are
+         * multiplied in parallel.
+         */
+        private static final int THRESHOLD = 1 << 10;
+
+        private final long[] packed;
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates a new Multiplication of the given range.
+         *
+         * @param packed The array of packed products.
+         * @param from   The inclusive starting index.
+         * @param to     The exclusive ending index.
+         */
+        private Multiplication(final long[] packed, final int from,
+                               final int to) {
+            this.packed = packed;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Returns the product of the range.
+         *
+         * @return The product of the range.
+         */
+        @Override
+        protected BigInteger compute() {
+            if (to - from <= THRESHOLD) {
+                return multiply(packed, from, to);
+            }
+            int mid = (from + to) >>> 1;
+
+            Multiplication multiplication1
+                    = new Multiplication(packed, from, mid);
+            Multiplication multiplication2
+                    = new Multiplication(packed, mid, to);
+
+            multiplication1.fork(); // On a (hopefully) separate thread
+
+            // combine and return result
+            return multiplication2.compute().multiply(multiplication1.join());
+        }
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * This is a cache-friendly implementation of the Sieve of Eratosthenes. It
+ * sifts a range [lower, upper) one block at a time, using only the primes up
+ * to the square root of the upper limit. Every block stores one bit per odd
+ * number and fits in a typical L1 data cache, so that the crossing-off
+ * never has to wait on main memory.
+ * <p>
+ * Since the whole range is never held in memory at once, the limits are
+ * not restricted to ints. For example,
+ * <pre><code>
+ *  // ...
+ *  long count = new SegmentedSieve(lower, upper).count();
+ *  long sum = new SegmentedSieve(0, 10_000_000_001L).sum();
+ *  // ...
+ * </code></pre>
+ * <h2>Time complexity:</h2>
+ * O(n log log n)
+ * <h2>Space complexity:</h2>
+ * O(&radic;n)
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class SegmentedSieve {
+
+    /**
+     * The number of odd integers covered by a single block. A block of
+     * bits then occupies 32 KiB.
+     */
+    public static final int SEGMENT_LENGTH = 1 << 18;
+
+    /**
+     * The largest (exclusive) upper limit supported. It keeps the base
+     * primes and their offsets within the bounds of an int.
+     */
+    public static final long MAX_LIMIT = 1L << 60;
+
+    /**
+     * The limit till which the base primes are obtained from a plain sieve
+     * instead of a segmented one.
+     */
+    private static final int PLAIN_SIEVE_LIMIT = 1 << 20;
+
+    private final long lower;
+    private final long upper;
+    private final int[] basePrimes;
+
+    /**
+     * Creates a new instance of SegmentedSieve for the desired range.
+     *
+     * @param lower The inclusive lower limit.
+     * @param upper The exclusive upper limit.
+     */
+    public SegmentedSieve(final long lower, final long upper) {
+        this(lower, upper, basePrimesFor(upper));
+    }
+
+    /**
+     * Creates a new instance of SegmentedSieve for the desired range which
+     * uses the given (shared, read-only) odd base primes. They must include
+     * all the odd primes whose squares are less than the upper limit.
+     *
+     * @param lower      The inclusive lower limit.
+     * @param upper      The exclusive upper limit.
+     * @param basePrimes The odd base primes in ascending order.
+     */
+    SegmentedSieve(final long lower, final long upper,
+                   final int[] basePrimes) {
+        if (lower < 0)
+            throw new IllegalArgumentException
+                    ("Invalid lower limit : " + lower);
+        if (upper > MAX_LIMIT)
+            throw new IllegalArgumentException
+                    ("Upper limit is too large : " + upper);
+        this.lower = lower;
+        this.upper = upper;
+        this.basePrimes = basePrimes;
+    }
+
+    /**
+     * Returns all the odd primes whose squares are less than the given
+     * upper limit, in ascending order.
+     *
+     * @param upper The exclusive upper limit of the range to sift.
+     * @return The odd primes required to sift a range below the limit.
+     */
+    static int[] basePrimesFor(final long upper) {
+        if (upper > MAX_LIMIT)
+            throw new IllegalArgumentException
+                    ("Upper limit is too large : " + upper);
+        int limit = upper < 2 ? 0 : (int) Arithmetic.isqrt(upper - 1);
+        if (limit <= PLAIN_SIEVE_LIMIT) {
+            boolean[] sieve = Primes.siftUntil(Math.max(limit, 1));
+            int count = 0;
+            for (int i = 3; i <= limit; i += 2) {
+                if (sieve[i])
+                    count++;
+            }
+            int[] primes = new int[count];
+            for (int i = 3, index = 0; i <= limit; i += 2) {
+                if (sieve[i])
+                    primes[index++] = i;
+            }
+            return primes;
+        }
+        // the square root is itself large enough to be segmented
+        long[] primes = new SegmentedSieve(3, limit + 1L).toArray();
+        int[] basePrimes = new int[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            basePrimes[i] = (int) primes[i];
+        }
+        return basePrimes;
+    }
+
+    /**
+     * Performs the given action on every prime in the range, in ascending
+     * order.
+     *
+     * @param action The action to be performed on each prime.
+     */
+    public void forEachPrime(final LongConsumer action) {
+        if (containsTwo())
+            action.accept(2);
+        sift((bits, low, length) -> {
+            for (int i = 0; i < bits.length; i++) {
+                for (long word = bits[i]; word != 0; word &= word - 1) {
+                    int index = (i << 6) + Long.numberOfTrailingZeros(word);
+                    action.accept(low + 2L * index);
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Returns the number of primes in the range.
+     *
+     * @return The number of primes in the range.
+     */
+    public long count() {
+        long[] count = {containsTwo() ? 1 : 0};
+        sift((bits, low, length) -> {
+            long local = 0;
+            for (long word : bits) {
+                local += Long.bitCount(word);
+            }
+            count[0] += local;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Returns the sum of all the primes in the range.
+     *
+     * @return The sum of all the primes in the range.
+     * @throws ArithmeticException If the sum overflows a long.
+     */
+    public long sum() {
+        long[] sum = {containsTwo() ? 2 : 0};
+        sift((bits, low, length) -> {
+            long local = sum[0];
+            for (int i = 0; i < bits.length; i++) {
+                for (long word = bits[i]; word != 0; word &= word - 1) {
+                    int index = (i << 6) + Long.numberOfTrailingZeros(word);
+                    local = Math.addExact(local, low + 2L * index);
+                }
+            }
+            sum[0] = local;
+            return true;
+        });
+        return sum[0];
+    }
+
+    /**
+     * Returns the n<sup>th</sup> prime in the range, counting from 1.
+     *
+     * @param n The rank of the required prime.
+     * @return The n<sup>th</sup> prime in the range.
+     * @throws NoSuchElementException If the range has fewer than n primes.
+     */
+    public long nth(final long n) {
+        if (n < 1)
+            throw new IllegalArgumentException("Invalid rank : " + n);
+        if (containsTwo() && n == 1)
+            return 2;
+        long[] state = {containsTwo() ? n - 1 : n, -1};
+        sift((bits, low, length) -> {
+            long remaining = state[0];
+            for (int i = 0; i < bits.length; i++) {
+                int count = Long.bitCount(bits[i]);
+                if (count < remaining) {
+                    remaining -= count;
+                    continue;
+                }
+                // the required prime lies in this word
+                long word = bits[i];
+                while (--remaining > 0)
+                    word &= word - 1;
+                int index = (i << 6) + Long.numberOfTrailingZeros(word);
+                state[1] = low + 2L * index;
+                return false;
+            }
+            state[0] = remaining;
+            return true;
+        });
+        if (state[1] < 0)
+            throw new NoSuchElementException
+                    ("Fewer than " + n + " primes in the range.");
+        return state[1];
+    }
+
+    /**
+     * Returns an array of all the primes in the range, in ascending order.
+     *
+     * @return An array of all the primes in the range.
+     */
+    public long[] toArray() {
+        long[][] primes = {new long[initialCapacity()]};
+        int[] size = {0};
+        forEachPrime(prime -> {
+            if (size[0] == primes[0].length)
+                primes[0] = Arrays.copyOf(primes[0], size[0] << 1);
+            primes[0][size[0]++] = prime;
+        });
+        return Arrays.copyOf(primes[0], size[0]);
+    }
+
+    /**
+     * Returns a reasonable guess of the number of primes in the range,
+     * based on the Prime Number Theorem.
+     *
+     * @return An estimate of the number of primes in the range.
+     */
+    private int initialCapacity() {
+        if (upper <= lower)
+            return 1;
+        // pi(x) < 1.25506 x / log x for x > 1 and pi(x) > x / log x for
+        // x >= 17, but the bounds are loose for narrow ranges
+        double bound = 1.25506 * upper / Math.log(upper)
+                - (lower < 17 ? 0 : lower / Math.log(lower));
+        double density = 1.25 * (upper - lower) / Math.log(lower + 2);
+        double estimate = Math.min(bound, density) + 16;
+        return (int) Math.min(estimate, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Returns {@code true} if 2 lies in the range. Since the blocks store
+     * only odd numbers, it has to be accounted for separately.
+     *
+     * @return {@code true} if 2 lies in the range.
+     */
+    private boolean containsTwo() {
+        return lower <= 2 && 2 < upper;
+    }
+
+    /**
+     * Sifts the odd numbers of the range block by block, and passes each
+     * block to the visitor.
+     *
+     * @param visitor The visitor that processes the blocks.
+     */
+    private void sift(final BlockVisitor visitor) {
+        // the first odd number that is greater than 1
+        long first = Math.max(lower, 3) | 1;
+        if (first >= upper)
+            return;
+
+        final int[] primes = basePrimes;
+        long[] next = offsets(primes, first);
+
+        long[] bits = new long[SEGMENT_LENGTH >>> 6];
+        for (long low = first; low < upper; low += 2L * SEGMENT_LENGTH) {
+            int length = (int) Math.min
+                    (SEGMENT_LENGTH, (upper - low + 1) >>> 1);
+            if (length < SEGMENT_LENGTH) {
+                // the last block is shorter than the rest
+                bits = new long[(length + 63) >>> 6];
+            }
+            Arrays.fill(bits, -1L);
+            crossOff(bits, 0, length, primes, next);
+            if ((length & 63) != 0)
+                bits[bits.length - 1] &= (1L << length) - 1;
+            if (!visitor.visit(bits, low, length))
+                return;
+        }
+    }
+
+    /**
+     * Returns the offsets of the first odd multiple of each prime that needs
+     * to be crossed off in a bitmap of odd numbers starting at the given odd
+     * number. Since the smaller multiples are crossed off by the smaller
+     * primes, the first multiple is never less than the square of the prime.
+     *
+     * @param primes The odd primes whose multiples are to be crossed off.
+     * @param first  The odd number represented by the first bit.
+     * @return The offsets of the first multiples in terms of bits.
+     */
+    static long[] offsets(final int[] primes, final long first) {
+        long[] next = new long[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            long prime = primes[i];
+            long start = prime * prime;
+            if (start < first) {
+                start = (first + prime - 1) / prime * prime;
+                if ((start & 1) == 0)
+                    start += prime;
+            }
+            next[i] = (start - first) >>> 1;
+        }
+        return next;
+    }
+
+    /**
+     * Clears the bits of the odd multiples of the given primes in a single
+     * block of a bitmap, where consecutive bits represent consecutive odd
+     * numbers. The block consists of the bits [from, from + length).
+     * <p>
+     * For every prime, the array of offsets holds the index of its next odd
+     * multiple relative to the start of the block. The offsets are updated
+     * so that they become relative to the start of the following block.
+     *
+     * @param bits   The bitmap which contains the block.
+     * @param from   The index of the first bit of the block.
+     * @param length The number of bits in the block.
+     * @param primes The odd primes whose multiples are to be crossed off.
+     * @param next   The offsets of the next multiple of each prime.
+     */
+    static void crossOff(final long[] bits, final int from, final int length,
+                         final int[] primes, final long[] next) {
+        for (int i = 0; i < primes.length; i++) {
+            long offset = next[i];
+            if (offset >= length) {
+                next[i] = offset - length;
+                continue;
+            }
+            int prime = primes[i];
+            int j = (int) offset;
+            for (; j < length; j += prime) {
+                int index = from + j;
+                bits[index >>> 6] &= ~(1L << index);
+            }
+            next[i] = j - length;
+        }
+    }
+
+    /**
+     * The callback used to process a freshly sifted block.
+     */
+    @FunctionalInterface
+    private interface BlockVisitor {
+        /**
+         * Processes a block, where the bit at index i is set if and only if
+         * the odd number low + 2i is prime. The bits beyond the length of
+         * the block are always clear.
+         *
+         * @param bits   The bits that mark the primes.
+         * @param low    The (odd) number represented by the first bit.
+         * @param length The number of valid bits in the block.
+         * @return {@code false} if the sifting should stop.
+         */
+        boolean visit(long[] bits, long low, int length);
+    }
+}
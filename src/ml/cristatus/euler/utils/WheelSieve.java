@@ -0,0 +1,208 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 - 2016 Subhomoy Haldar
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package ml.cristatus.euler.utils;
+
+import java.util.Arrays;
+
+/**
+ * This is a Sieve of Eratosthenes that is factorized by the wheel of 30
+ * (= 2 &times; 3 &times; 5). Only the 8 residues modulo 30 which are coprime
+ * to 30 can be primes (apart from 2, 3 and 5 themselves), so each byte of the
+ * sieve holds exactly one turn of the wheel. This needs about half the memory
+ * of an odd-only sieve, and crosses off correspondingly fewer multiples.
+ * <p>
+ * The multiples p &times; q of a prime p are crossed off only for q
+ * coprime to 30. For each of the 8 residues of q, these multiples form an
+ * arithmetic progression of bytes with a stride of p, that always clear the
+ * same bit. These stride patterns are precomputed for every prime, and the
+ * progressions are then walked block by block so as to stay in the cache.
+ * <p>
+ * <h2>Time complexity:</h2>
+ * O(n log log n)
+ * <h2>Space complexity:</h2>
+ * n / 30 bytes.
+ *
+ * @author Subhomoy Haldar
+ * @version 1.0
+ */
+public class WheelSieve {
+
+    /**
+     * The largest (inclusive) limit supported by a byte array.
+     */
+    public static final long MAX_LIMIT = 30L * (Integer.MAX_VALUE - 8) - 1;
+
+    /**
+     * The residues modulo 30 which are coprime to 30, one per bit.
+     */
+    private static final int[] RESIDUES = {1, 7, 11, 13, 17, 19, 23, 29};
+
+    /**
+     * The bit which represents each residue modulo 30, or -1 if it is not
+     * coprime to 30.
+     */
+    private static final int[] BIT_OF = new int[30];
+
+    /**
+     * The number of bytes sifted at a time, chosen to fit in the L1 cache.
+     */
+    private static final int BLOCK_SIZE = 1 << 15;
+
+    static {
+        Arrays.fill(BIT_OF, -1);
+        for (int i = 0; i < RESIDUES.length; i++) {
+            BIT_OF[RESIDUES[i]] = i;
+        }
+    }
+
+    private final long limit;
+    private final byte[] sieve;
+
+    /**
+     * Creates a new WheelSieve for all the numbers upto the given inclusive
+     * limit.
+     *
+     * @param limit The inclusive upper limit.
+     */
+    public WheelSieve(final long limit) {
+        if (limit < 0 || limit > MAX_LIMIT)
+            throw new IllegalArgumentException("Invalid limit : " + limit);
+        this.limit = limit;
+        final int size = (int) (limit / 30 + 1);
+        sieve = new byte[size];
+        Arrays.fill(sieve, (byte) -1);
+        sieve[0] &= ~1;     // 1 is not prime
+
+        // precompute the stride patterns of every base prime except 3 and 5
+        int[] basePrimes = SegmentedSieve.basePrimesFor(limit + 1);
+        int skip = Math.min(2, basePrimes.length);
+        int count = basePrimes.length - skip;
+        int[] strides = new int[count];
+        long[] next = new long[count << 3];
+        byte[] masks = new byte[count << 3];
+        for (int k = 0; k < count; k++) {
+            long prime = basePrimes[k + skip];
+            strides[k] = (int) prime;
+            for (int j = 0; j < 8; j++) {
+                // the smallest q = 30b + r >= prime
+                long r = RESIDUES[j];
+                long b = prime > r ? (prime - r + 29) / 30 : 0;
+                next[(k << 3) + j] = b * prime + prime * r / 30;
+                int bit = BIT_OF[(int) (prime * r % 30)];
+                masks[(k << 3) + j] = (byte) ~(1 << bit);
+            }
+        }
+
+        // from + BLOCK_SIZE would overflow an int in the last block when
+        // size is near 2^31, so the end of a block is never computed past it
+        for (int from = 0, to; from < size; from = to) {
+            to = from + Math.min(BLOCK_SIZE, size - from);
+            for (int k = 0; k < next.length; k++) {
+                int stride = strides[k >>> 3];
+                byte mask = masks[k];
+                long i = next[k];
+                for (; i < to; i += stride)
+                    sieve[(int) i] &= mask;
+                next[k] = i;
+            }
+        }
+
+        // clear the residues of the last byte that lie beyond the limit
+        int last = (int) (limit % 30);
+        for (int j = 0; j < 8; j++) {
+            if (RESIDUES[j] > last)
+                sieve[size - 1] &= ~(1 << j);
+        }
+    }
+
+    /**
+     * Returns the inclusive limit upto which this sieve holds the primes.
+     *
+     * @return The inclusive limit of this sieve.
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns {@code true} if the given number is prime.
+     *
+     * @param number The number whose primality is to be determined.
+     * @return {@code true} if the number is prime.
+     */
+    public boolean isPrime(final long number) {
+        if (number < 0 || number > limit)
+            throw new IllegalArgumentException
+                    ("Outside the sieve [0, " + limit + "] : " + number);
+        if (number < 6)
+            return number == 2 || number == 3 || number == 5;
+        int bit = BIT_OF[(int) (number % 30)];
+        return bit >= 0 && (sieve[(int) (number / 30)] & (1 << bit)) != 0;
+    }
+
+    /**
+     * Returns the number of primes upto the limit.
+     *
+     * @return The number of primes upto the limit.
+     */
+    public long count() {
+        long count = smallPrimes().length;
+        for (byte flags : sieve) {
+            count += Integer.bitCount(flags & 0xFF);
+        }
+        return count;
+    }
+
+    /**
+     * Returns an array of all the primes upto the limit, in ascending order.
+     *
+     * @return An array of all the primes upto the limit.
+     */
+    public long[] toArray() {
+        long[] small = smallPrimes();
+        long[] primes = Arrays.copyOf(small, (int) count());
+        int index = small.length;
+        for (int i = 0; i < sieve.length; i++) {
+            for (int flags = sieve[i] & 0xFF; flags != 0; flags &= flags - 1) {
+                int bit = Integer.numberOfTrailingZeros(flags);
+                primes[index++] = 30L * i + RESIDUES[bit];
+            }
+        }
+        return primes;
+    }
+
+    /**
+     * Returns the primes 2, 3 and 5 that lie within the limit, since they
+     * are not represented in the sieve.
+     *
+     * @return The primes that are factors of the wheel.
+     */
+    private long[] smallPrimes() {
+        if (limit < 2) return new long[0];
+        if (limit < 3) return new long[]{2};
+        if (limit < 5) return new long[]{2, 3};
+        return new long[]{2, 3, 5};
+    }
+}